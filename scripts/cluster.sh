@@ -0,0 +1,67 @@
+#!/bin/sh
+# Starts growing local clusters and drives each with the same number of games per node.
+# Usage: ./scripts/cluster.sh [games per node] [node counts...]   e.g. ./scripts/cluster.sh 500 1 2 4
+set -e
+
+cd "$(dirname "$0")/.."
+
+GAMES_PER_NODE=${1:-500}
+shift || true
+NODE_COUNTS=${*:-"1 2 4"}
+DURATION=${DURATION:-120}
+
+./gradlew -q bootJar
+JAR=$(ls build/libs/*.jar | head -n 1)
+mkdir -p build/cluster
+
+PIDS=""
+stop_nodes() {
+    for pid in $PIDS; do kill "$pid" 2>/dev/null || true; done
+    for pid in $PIDS; do wait "$pid" 2>/dev/null || true; done
+    PIDS=""
+}
+trap stop_nodes EXIT
+
+for count in $NODE_COUNTS; do
+    nodes=""
+    i=0
+    while [ $i -lt "$count" ]; do
+        nodes="$nodes${nodes:+,}http://localhost:$((8080 + i * 10))"
+        i=$((i + 1))
+    done
+
+    i=0
+    while [ $i -lt "$count" ]; do
+        port=$((8080 + i * 10))
+        java -jar "$JAR" \
+            --server.port=$port \
+            --management.server.port=$((port + 1)) \
+            --timesup.cluster.nodes="$nodes" \
+            --timesup.cluster.self="http://localhost:$port" \
+            --timesup.journal.directory="build/cluster/node-$port" \
+            > "build/cluster/node-$port.log" 2>&1 &
+        PIDS="$PIDS $!"
+        i=$((i + 1))
+    done
+
+    i=0
+    while [ $i -lt "$count" ]; do
+        until curl -sf "http://localhost:$((8081 + i * 10))/actuator/health" > /dev/null; do sleep 1; done
+        i=$((i + 1))
+    done
+
+    echo "=== $count node(s), $((GAMES_PER_NODE * count)) games ==="
+    ./gradlew -q loadTest -Ptargets="$nodes" -Pgames=$((GAMES_PER_NODE * count)) -Pduration="$DURATION" \
+        | tee "build/cluster/load-$count.txt" | sed -n '/^endpoint/,$p'
+
+    i=0
+    while [ $i -lt "$count" ]; do
+        port=$((8080 + i * 10))
+        games=$(curl -s "http://localhost:$((port + 1))/actuator/prometheus" | grep '^timesup_games{state="PLAY"' | awk '{print $2}')
+        echo "node $port active games: $games"
+        i=$((i + 1))
+    done
+    echo
+
+    stop_nodes
+done
@@ -0,0 +1,26 @@
+#!/bin/sh
+# Runs the load generator once on platform threads and once on virtual threads.
+# Virtual threads need a JDK 21+ runtime: JAVA21_HOME=/path/to/jdk ./scripts/compare-threading.sh -Pgames=2000
+set -e
+
+cd "$(dirname "$0")/.."
+
+if [ -z "$JAVA21_HOME" ]; then
+    echo "Set JAVA21_HOME to a JDK 21+ installation" >&2
+    exit 1
+fi
+
+mkdir -p build/loadtest
+for mode in platform virtual; do
+    if [ "$mode" = virtual ]; then virtual=true; else virtual=false; fi
+    echo "=== $mode threads ==="
+    ./gradlew -q loadTest -PjavaExecutable="$JAVA21_HOME/bin/java" -PvirtualThreads=$virtual "$@" \
+        | tee "build/loadtest/$mode.txt"
+done
+
+echo
+for mode in platform virtual; do
+    echo "=== $mode threads ==="
+    sed -n '/^endpoint/,$p' "build/loadtest/$mode.txt"
+    echo
+done
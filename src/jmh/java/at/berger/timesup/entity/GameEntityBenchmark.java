@@ -0,0 +1,20 @@
+package at.berger.timesup.entity;
+
+import at.berger.timesup.service.GameFixture;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.List;
+
+public class GameEntityBenchmark {
+
+    @Benchmark
+    public List<GameEntity.TeamScore> getTeamScores(GameFixture fixture) {
+        return fixture.gameRepository.update(fixture.nextGameId(), GameEntity::getTeamScores, scores -> false);
+    }
+
+    @Benchmark
+    public GameTeamEntity getPlayerTeam(GameFixture fixture) {
+        String playerName = fixture.nextPlayerName();
+        return fixture.gameRepository.update(fixture.nextGameId(), game -> game.getPlayerTeam(playerName), team -> false);
+    }
+}
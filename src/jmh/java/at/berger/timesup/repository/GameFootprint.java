@@ -0,0 +1,43 @@
+package at.berger.timesup.repository;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.repository.codec.BinaryGameCodec;
+import at.berger.timesup.repository.codec.GameCodec;
+import at.berger.timesup.repository.codec.JsonGameCodec;
+import at.berger.timesup.service.GameFixture;
+import org.openjdk.jol.info.GraphLayout;
+
+public class GameFootprint {
+
+    private static final int[][] SHAPES = {
+            {4, 5, 0},
+            {4, 5, 10},
+            {40, 20, 0},
+            {40, 20, 10},
+    };
+
+    public static void main(String[] args) {
+        GameCodec binary = new BinaryGameCodec();
+        GameCodec json = new JsonGameCodec();
+        System.out.printf("%8s %8s %8s %12s %12s %12s %12s%n",
+                "players", "entries", "rounds", "heap", "snapshot", "binary", "json");
+        for (int[] shape : SHAPES) {
+            GameFixture fixture = new GameFixture();
+            fixture.games = 1;
+            fixture.players = shape[0];
+            fixture.entriesPerPlayer = shape[1];
+            fixture.roundsPlayed = shape[2];
+            fixture.setUp();
+            try {
+                String gameId = fixture.getGameIds()[0];
+                GameEntity game = fixture.gameRepository.get(gameId);
+                long heap = GraphLayout.parseInstance(game).totalSize();
+                long snapshot = GraphLayout.parseInstance(fixture.gameRepository.getSnapshot(gameId)).totalSize();
+                System.out.printf("%8d %8d %8d %12d %12d %12d %12d%n", shape[0], shape[1], shape[2], heap, snapshot,
+                        binary.encode(game).length, json.encode(game).length);
+            } finally {
+                fixture.tearDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package at.berger.timesup.repository;
+
+import at.berger.timesup.model.GameSnapshot;
+import at.berger.timesup.service.GameFixture;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.List;
+
+public class GameRepositoryBenchmark {
+
+    @Benchmark
+    public List<GameSnapshot> getSetupAndPlayFirstPage(GameFixture fixture) {
+        return fixture.gameRepository.getSetupAndPlay(null, 0, 21);
+    }
+
+    @Benchmark
+    public List<GameSnapshot> getSetupAndPlaySearch(GameFixture fixture) {
+        return fixture.gameRepository.getSetupAndPlay("game 1", 0, 21);
+    }
+}
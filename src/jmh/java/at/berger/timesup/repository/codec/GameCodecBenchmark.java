@@ -0,0 +1,50 @@
+package at.berger.timesup.repository.codec;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.service.GameFixture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+
+public class GameCodecBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Codec {
+
+        @Param({"binary", "json"})
+        public String format;
+
+        public GameCodec codec;
+
+        public ByteBuffer encoded;
+
+        @Setup(Level.Trial)
+        public void setUp(GameFixture fixture) {
+            switch (format) {
+                case "binary":
+                    codec = new BinaryGameCodec();
+                    break;
+                default:
+                    codec = new JsonGameCodec();
+            }
+            byte[] bytes = codec.encode(fixture.gameRepository.get(fixture.nextGameId()));
+            encoded = ByteBuffer.wrap(bytes);
+            System.out.printf("%n%s encodes a game in %d bytes%n", format, bytes.length);
+        }
+    }
+
+    @Benchmark
+    public byte[] encode(GameFixture fixture, Codec codec) {
+        return codec.codec.encode(fixture.gameRepository.get(fixture.nextGameId()));
+    }
+
+    @Benchmark
+    public GameEntity decode(Codec codec) {
+        return codec.codec.decode(codec.encoded.duplicate());
+    }
+}
@@ -0,0 +1,53 @@
+package at.berger.timesup.repository.codec;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.entity.GameRoundEntity;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreType;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+public class JsonGameCodec implements GameCodec {
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+            .addMixIn(Random.class, RandomMixIn.class)
+            .addMixIn(GameRoundEntity.class, GameRoundMixIn.class);
+
+    @Override
+    public byte[] encode(GameEntity game) {
+        try {
+            return mapper.writeValueAsBytes(game);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public GameEntity decode(ByteBuffer buffer) {
+        try {
+            return mapper.readValue(new ByteBufferBackedInputStream(buffer), GameEntity.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot decode game", e);
+        }
+    }
+
+    @JsonIgnoreType
+    private abstract static class RandomMixIn {
+    }
+
+    private abstract static class GameRoundMixIn {
+        @JsonIgnore
+        private Object dictionary;
+    }
+}
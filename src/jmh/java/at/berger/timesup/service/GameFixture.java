@@ -0,0 +1,128 @@
+package at.berger.timesup.service;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.entity.GameRoundState;
+import at.berger.timesup.entity.GameState;
+import at.berger.timesup.metrics.GameMetrics;
+import at.berger.timesup.model.GameRoundSnapshot;
+import at.berger.timesup.model.GameSnapshot;
+import at.berger.timesup.repository.OffHeapGameStore;
+import at.berger.timesup.repository.codec.BinaryGameCodec;
+import at.berger.timesup.repository.journal.GameCheckpointStore;
+import at.berger.timesup.repository.journal.GameJournal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@State(Scope.Benchmark)
+public class GameFixture {
+
+    private static final int ROUND_TIME = 1000 * 60 * 60;
+    private static final List<String> TEAMS = Arrays.asList("Red", "Blue");
+
+    @Param({"1", "1000"})
+    public int games;
+
+    @Param({"4", "40"})
+    public int players;
+
+    @Param({"5", "20"})
+    public int entriesPerPlayer;
+
+    @Param({"0", "10"})
+    public int roundsPlayed;
+
+    public ManualTimerGameRepository gameRepository;
+
+    public GameService gameService;
+
+    private String[] gameIds;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GameJournal journal = new GameJournal(false, "build/jmh/journal", 1 << 20, 10, 3,
+                new BinaryGameCodec(), new GameCheckpointStore("build/jmh/journal"));
+        gameRepository = new ManualTimerGameRepository(journal, new OffHeapGameStore(new BinaryGameCodec()));
+        gameService = new GameService(gameRepository, new GameMetrics(new SimpleMeterRegistry()));
+        gameIds = new String[games];
+        for (int i = 0; i < games; i++) {
+            gameIds[i] = createGame(i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        gameRepository.shutdown();
+    }
+
+    public String[] getGameIds() {
+        return gameIds;
+    }
+
+    public String nextGameId() {
+        next = (next + 1) % games;
+        return gameIds[next];
+    }
+
+    public String nextPlayerName() {
+        return playerName((next * 7) % players);
+    }
+
+    public String teamName(String playerName) {
+        return TEAMS.get(Integer.parseInt(playerName.substring("Player ".length())) % TEAMS.size());
+    }
+
+    public GameSnapshot nextGameInProgress() {
+        int index = (next + 1) % games;
+        next = index;
+        GameSnapshot game = gameService.getGame(gameIds[index]);
+        if (GameState.END.equals(game.getState())) {
+            gameRepository.remove(gameIds[index]);
+            gameIds[index] = createGame(index);
+            game = gameService.getGame(gameIds[index]);
+        }
+        GameRoundSnapshot round = game.getCurrentRound();
+        if (GameRoundState.AWAIT_START.equals(round.getState())) {
+            gameService.startRound(game.getId(), round.getPlayerName());
+            game = gameService.getGame(game.getId());
+        }
+        return game;
+    }
+
+    public void playRound(String gameId) {
+        GameRoundSnapshot round = gameService.getGame(gameId).getCurrentRound();
+        gameService.startRound(gameId, round.getPlayerName());
+        gameRepository.fireUpdate(gameId);
+    }
+
+    private String createGame(int index) {
+        GameEntity game = gameService.createGame("Game " + index, TEAMS, ROUND_TIME, entriesPerPlayer, "", false);
+        for (int p = 0; p < players; p++) {
+            Set<String> entries = new HashSet<>();
+            for (int e = 0; e < entriesPerPlayer; e++) {
+                entries.add("Entry " + p + "-" + e);
+            }
+            gameService.joinSetupGame(game.getId(), TEAMS.get(p % TEAMS.size()), playerName(p), entries);
+        }
+        gameService.startGame(game.getId());
+        for (int r = 0; r < roundsPlayed; r++) {
+            playRound(game.getId());
+        }
+        return game.getId();
+    }
+
+    private static String playerName(int index) {
+        return "Player " + index;
+    }
+}
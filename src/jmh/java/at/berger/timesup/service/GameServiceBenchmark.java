@@ -0,0 +1,34 @@
+package at.berger.timesup.service;
+
+import at.berger.timesup.model.GameScreenModel;
+import at.berger.timesup.model.GameSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+
+public class GameServiceBenchmark {
+
+    @Benchmark
+    public void correctEntry(GameFixture fixture) {
+        GameSnapshot game = fixture.nextGameInProgress();
+        fixture.gameService.correctEntry(game.getId(), game.getCurrentRound().getPlayerName(),
+                game.getCurrentRound().getCurrentEntry());
+    }
+
+    @Benchmark
+    public void rejectEntry(GameFixture fixture) {
+        GameSnapshot game = fixture.nextGameInProgress();
+        fixture.gameService.rejectEntry(game.getId(), game.getCurrentRound().getPlayerName(),
+                game.getCurrentRound().getCurrentEntry());
+    }
+
+    @Benchmark
+    public void startRoundAndExpire(GameFixture fixture) {
+        fixture.playRound(fixture.nextGameId());
+    }
+
+    @Benchmark
+    public GameScreenModel getGameScreen(GameFixture fixture) {
+        String gameId = fixture.nextGameId();
+        String playerName = fixture.nextPlayerName();
+        return fixture.gameService.getGameScreen(gameId, fixture.teamName(playerName), playerName);
+    }
+}
@@ -0,0 +1,37 @@
+package at.berger.timesup.service;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.executor.GameExecutors;
+import at.berger.timesup.repository.InMemoryGameRepository;
+import at.berger.timesup.repository.OffHeapGameStore;
+import at.berger.timesup.repository.journal.GameJournal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+public class ManualTimerGameRepository extends InMemoryGameRepository {
+
+    private final Map<String, Function<GameEntity, Boolean>> pendingUpdates = new ConcurrentHashMap<>();
+
+    public ManualTimerGameRepository(GameJournal journal, OffHeapGameStore idleGames) {
+        super(event -> { }, journal, new GameExecutors(false), idleGames, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    @Override
+    public void updateIn(String id, int milliseconds, Function<GameEntity, Boolean> updateOperation) {
+        pendingUpdates.put(id, updateOperation);
+    }
+
+    @Override
+    public void cancelUpdate(String id) {
+        pendingUpdates.remove(id);
+    }
+
+    public void fireUpdate(String id) {
+        Function<GameEntity, Boolean> updateOperation = pendingUpdates.remove(id);
+        if (updateOperation != null) {
+            update(id, updateOperation, Boolean::booleanValue);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package at.berger.timesup.loadtest;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class EndpointStats {
+
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long micros, boolean error) {
+        latencies.computeIfAbsent(endpoint, e -> new LatencyHistogram()).record(micros);
+        if (error) {
+            errors.computeIfAbsent(endpoint, e -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    public long getTotalCount() {
+        return latencies.values().stream().mapToLong(LatencyHistogram::getCount).sum();
+    }
+
+    public long getTotalErrors() {
+        return errors.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    public void print(PrintStream out, long durationMillis) {
+        out.printf("%-20s %10s %8s %8s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(latencies).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            AtomicLong endpointErrors = errors.get(entry.getKey());
+            out.printf("%-20s %10d %8.1f %8d %10.2f %10.2f %10.2f %10.2f%n",
+                    entry.getKey(),
+                    histogram.getCount(),
+                    histogram.getCount() * 1000.0 / durationMillis,
+                    endpointErrors == null ? 0 : endpointErrors.get(),
+                    histogram.getPercentile(0.5) / 1000.0,
+                    histogram.getPercentile(0.99) / 1000.0,
+                    histogram.getPercentile(0.999) / 1000.0,
+                    histogram.getMax() / 1000.0);
+        }
+    }
+}
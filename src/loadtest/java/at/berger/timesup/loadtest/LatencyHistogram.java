@@ -0,0 +1,66 @@
+package at.berger.timesup.loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 128;
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(LINEAR_BUCKETS + 64 * SUB_BUCKETS);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long micros) {
+        long value = Math.max(micros, 0);
+        buckets.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getPercentile(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(percentile * total);
+        long cumulative = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            cumulative += buckets.get(i);
+            if (cumulative >= target) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    private static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - 7) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 7;
+        int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,97 @@
+package at.berger.timesup.loadtest;
+
+import at.berger.timesup.TimesUpApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LoadTest {
+
+    private static final String CLIENT_THREAD_PREFIX = "load-client-";
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        System.setProperty("http.maxConnections", String.valueOf(config.getClientThreads()));
+
+        ConfigurableApplicationContext context = null;
+        List<String> targets = config.getTargets();
+        if (targets.isEmpty()) {
+            context = SpringApplication.run(TimesUpApplication.class,
+                    "--server.port=0", "--management.server.port=0", "--timesup.journal.enabled=false", "--logging.level.root=WARN",
+                    "--timesup.threads.virtual=" + config.isVirtualThreads());
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            targets = Collections.singletonList("http://localhost:" + port);
+        }
+        List<String> baseUrls = targets;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(config.getClientThreads(), r -> {
+            Thread thread = new Thread(r, CLIENT_THREAD_PREFIX + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        EndpointStats stats = new EndpointStats();
+        ServerCpuMonitor cpu = context == null ? null : new ServerCpuMonitor(CLIENT_THREAD_PREFIX);
+        List<SimulatedGame> games = new CopyOnWriteArrayList<>();
+        AtomicInteger gameCount = new AtomicInteger();
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(config.getDuration());
+
+        System.out.printf("Load test against %s: %d games x %d players, %d s, %s threads%n",
+                baseUrls, config.getGames(), config.getPlayers(), config.getDuration(),
+                config.isVirtualThreads() ? "virtual" : "platform");
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < config.getGames(); i++) {
+            scheduler.schedule(() -> startGame(config, baseUrls, stats, scheduler, games, gameCount, deadline),
+                    ThreadLocalRandom.current().nextLong(config.getPollInterval() * 5), TimeUnit.MILLISECONDS);
+        }
+
+        long lastCount = 0;
+        while (System.currentTimeMillis() < deadline) {
+            Thread.sleep(10000);
+            long count = stats.getTotalCount();
+            System.out.printf("%5d s  %8.1f req/s  %6d errors  server cpu %5.1f%%  %d games started%n",
+                    (System.currentTimeMillis() - start) / 1000, (count - lastCount) / 10.0,
+                    stats.getTotalErrors(), cpu == null ? Double.NaN : cpu.sample() * 100, gameCount.get());
+            lastCount = count;
+        }
+
+        games.forEach(SimulatedGame::stop);
+        scheduler.shutdownNow();
+        long duration = System.currentTimeMillis() - start;
+        System.out.println();
+        stats.print(System.out, duration);
+        if (cpu != null) {
+            System.out.printf("%nserver cpu avg %.1f%% max %.1f%% of %d cores%n",
+                    cpu.getAverageLoad() * 100, cpu.getMaxLoad() * 100, Runtime.getRuntime().availableProcessors());
+        }
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    private static void startGame(LoadTestConfig config, List<String> baseUrls, EndpointStats stats,
+                                  ScheduledExecutorService scheduler, List<SimulatedGame> games,
+                                  AtomicInteger gameCount, long deadline) {
+        if (System.currentTimeMillis() >= deadline) {
+            return;
+        }
+        int gameNumber = gameCount.incrementAndGet();
+        String baseUrl = baseUrls.get(gameNumber % baseUrls.size());
+        SimulatedGame[] game = new SimulatedGame[1];
+        game[0] = new SimulatedGame("load" + gameNumber, config, baseUrl, stats, scheduler, () -> {
+            games.remove(game[0]);
+            scheduler.execute(() -> startGame(config, baseUrls, stats, scheduler, games, gameCount, deadline));
+        });
+        games.add(game[0]);
+        game[0].start();
+    }
+}
@@ -0,0 +1,105 @@
+package at.berger.timesup.loadtest;
+
+import lombok.Value;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class LoadTestClient {
+
+    private final String baseUrl;
+
+    private final EndpointStats stats;
+
+    private final Map<String, String> cookies = new LinkedHashMap<>();
+
+    private String etag;
+
+    public LoadTestClient(String baseUrl, EndpointStats stats) {
+        this.baseUrl = baseUrl;
+        this.stats = stats;
+    }
+
+    public Response get(String path, String... params) {
+        String endpoint = path;
+        long start = System.nanoTime();
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path + query(params)).openConnection();
+            connection.setInstanceFollowRedirects(false);
+            connection.setConnectTimeout(5000);
+            connection.setReadTimeout(30000);
+            if (!cookies.isEmpty()) {
+                connection.setRequestProperty("Cookie", cookies.entrySet().stream()
+                        .map(cookie -> cookie.getKey() + '=' + cookie.getValue())
+                        .collect(Collectors.joining("; ")));
+            }
+            boolean conditional = "/ajax/play".equals(path) && etag != null;
+            if (conditional) {
+                connection.setRequestProperty("If-None-Match", etag);
+            }
+            int status = connection.getResponseCode();
+            List<String> setCookies = connection.getHeaderFields().get("Set-Cookie");
+            if (setCookies != null) {
+                for (String setCookie : setCookies) {
+                    String[] cookie = setCookie.split(";", 2)[0].split("=", 2);
+                    cookies.put(cookie[0], cookie.length > 1 ? cookie[1] : "");
+                }
+            }
+            if ("/ajax/play".equals(path) && connection.getHeaderField("ETag") != null) {
+                etag = connection.getHeaderField("ETag");
+            }
+            String location = connection.getHeaderField("Location");
+            String body = read(status >= 400 ? connection.getErrorStream() : connection.getInputStream());
+            boolean error = status >= 400 || (location != null && location.contains("error="));
+            stats.record(endpoint, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), error);
+            return new Response(status, body, location);
+        } catch (IOException e) {
+            stats.record(endpoint, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), true);
+            return new Response(-1, "", null);
+        }
+    }
+
+    private static String query(String... params) throws UnsupportedEncodingException {
+        StringBuilder query = new StringBuilder();
+        for (int i = 0; i + 1 < params.length; i += 2) {
+            query.append(query.length() == 0 ? '?' : '&')
+                    .append(URLEncoder.encode(params[i], "UTF-8"))
+                    .append('=')
+                    .append(URLEncoder.encode(params[i + 1], "UTF-8"));
+        }
+        return query.toString();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        if (in == null) {
+            return "";
+        }
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Value
+    public static class Response {
+        int status;
+        String body;
+        String location;
+    }
+}
@@ -0,0 +1,38 @@
+package at.berger.timesup.loadtest;
+
+import lombok.Value;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Value
+public class LoadTestConfig {
+    int games;
+    int players;
+    int entries;
+    int roundTime;
+    int duration;
+    long pollInterval;
+    long guessInterval;
+    int clientThreads;
+    boolean virtualThreads;
+    List<String> targets;
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("games", 200),
+                Integer.getInteger("players", 6),
+                Integer.getInteger("entries", 5),
+                Integer.getInteger("roundTime", 60),
+                Integer.getInteger("duration", 300),
+                Long.getLong("pollInterval", 900),
+                Long.getLong("guessInterval", 3000),
+                Integer.getInteger("clientThreads", 128),
+                Boolean.getBoolean("virtualThreads"),
+                Arrays.stream(System.getProperty("targets", "").split(","))
+                        .map(String::trim)
+                        .filter(target -> !target.isEmpty())
+                        .collect(Collectors.toList()));
+    }
+}
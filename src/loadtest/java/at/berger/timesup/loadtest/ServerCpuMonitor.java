@@ -0,0 +1,63 @@
+package at.berger.timesup.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ServerCpuMonitor {
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private final int processors = Runtime.getRuntime().availableProcessors();
+
+    private final String clientThreadPrefix;
+
+    private Map<Long, Long> lastCpuTimes = new HashMap<>();
+
+    private long lastSample = System.nanoTime();
+
+    private double totalLoad;
+
+    private double maxLoad;
+
+    private int samples;
+
+    public ServerCpuMonitor(String clientThreadPrefix) {
+        this.clientThreadPrefix = clientThreadPrefix;
+        sample();
+    }
+
+    public synchronized double sample() {
+        long now = System.nanoTime();
+        long used = 0;
+        Map<Long, Long> cpuTimes = new HashMap<>();
+        for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (info == null || info.getThreadName().startsWith(clientThreadPrefix)) {
+                continue;
+            }
+            long cpuTime = threads.getThreadCpuTime(info.getThreadId());
+            if (cpuTime < 0) {
+                continue;
+            }
+            cpuTimes.put(info.getThreadId(), cpuTime);
+            used += cpuTime - lastCpuTimes.getOrDefault(info.getThreadId(), cpuTime);
+        }
+        double load = (double) used / Math.max(now - lastSample, 1) / processors;
+        lastCpuTimes = cpuTimes;
+        lastSample = now;
+        totalLoad += load;
+        maxLoad = Math.max(maxLoad, load);
+        samples++;
+        return load;
+    }
+
+    public synchronized double getAverageLoad() {
+        return samples <= 1 ? 0 : totalLoad / (samples - 1);
+    }
+
+    public synchronized double getMaxLoad() {
+        return maxLoad;
+    }
+}
@@ -0,0 +1,138 @@
+package at.berger.timesup.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class SimulatedGame {
+
+    private static final Pattern GAME_ID = Pattern.compile("name=\"gameId\" value=\"([^\"]+)\"");
+    private static final Pattern ENTRY = Pattern.compile("action=\"/correctEntry\".*?name=\"entry\" value=\"([^\"]*)\"", Pattern.DOTALL);
+    private static final String[] TEAMS = {"Red", "Blue"};
+
+    private final String name;
+    private final LoadTestConfig config;
+    private final String baseUrl;
+    private final EndpointStats stats;
+    private final ScheduledExecutorService scheduler;
+    private final Runnable onEnd;
+
+    private final List<ScheduledFuture<?>> pollers = new ArrayList<>();
+
+    private final AtomicBoolean ended = new AtomicBoolean();
+
+    public SimulatedGame(String name, LoadTestConfig config, String baseUrl, EndpointStats stats,
+                         ScheduledExecutorService scheduler, Runnable onEnd) {
+        this.name = name;
+        this.config = config;
+        this.baseUrl = baseUrl;
+        this.stats = stats;
+        this.scheduler = scheduler;
+        this.onEnd = onEnd;
+    }
+
+    public void start() {
+        List<LoadTestClient> players = new ArrayList<>();
+        for (int i = 0; i < config.getPlayers(); i++) {
+            players.add(new LoadTestClient(baseUrl, stats));
+        }
+        LoadTestClient admin = players.get(0);
+        admin.get("/createGame",
+                "gameName", name,
+                "teams", TEAMS[0],
+                "teams", TEAMS[1],
+                "description", "load test",
+                "entriesPerPlayer", String.valueOf(config.getEntries()),
+                "roundTime", String.valueOf(config.getRoundTime()),
+                "assignTeams", "false");
+        join(admin, 0);
+
+        Matcher gameId = GAME_ID.matcher(players.get(1).get("/start", "search", name).getBody());
+        if (!gameId.find()) {
+            end();
+            return;
+        }
+        for (int i = 1; i < players.size(); i++) {
+            players.get(i).get("/joinGame", "gameId", gameId.group(1));
+            join(players.get(i), i);
+        }
+        admin.get("/startGame");
+
+        synchronized (pollers) {
+            for (LoadTestClient player : players) {
+                long initialDelay = ThreadLocalRandom.current().nextLong(config.getPollInterval());
+                pollers.add(scheduler.scheduleAtFixedRate(new Poller(player), initialDelay,
+                        config.getPollInterval(), TimeUnit.MILLISECONDS));
+            }
+        }
+    }
+
+    public void stop() {
+        ended.set(true);
+        synchronized (pollers) {
+            pollers.forEach(p -> p.cancel(false));
+        }
+    }
+
+    private void join(LoadTestClient player, int index) {
+        String[] params = new String[4 + config.getEntries() * 2];
+        params[0] = "playerName";
+        params[1] = "player" + index;
+        params[2] = "teamName";
+        params[3] = TEAMS[index % TEAMS.length];
+        for (int e = 0; e < config.getEntries(); e++) {
+            params[4 + e * 2] = "gameEntries";
+            params[5 + e * 2] = name + "p" + index + "e" + e;
+        }
+        player.get("/doJoinSetupGame", params);
+    }
+
+    private void end() {
+        if (ended.compareAndSet(false, true)) {
+            stop();
+            onEnd.run();
+        }
+    }
+
+    private class Poller implements Runnable {
+
+        private final LoadTestClient player;
+
+        private long nextGuess;
+
+        Poller(LoadTestClient player) {
+            this.player = player;
+        }
+
+        @Override
+        public void run() {
+            if (ended.get()) {
+                return;
+            }
+            LoadTestClient.Response response = player.get("/ajax/play");
+            if (response.getStatus() != 200) {
+                return;
+            }
+            String screen = response.getBody();
+            if (screen.contains("action=\"/leaveGame\"")) {
+                end();
+                return;
+            }
+            if (screen.contains("action=\"/startRound\"")) {
+                player.get("/startRound");
+                return;
+            }
+            Matcher entry = ENTRY.matcher(screen);
+            if (entry.find() && System.currentTimeMillis() >= nextGuess) {
+                player.get("/correctEntry", "entry", entry.group(1));
+                nextGuess = System.currentTimeMillis() + config.getGuessInterval();
+            }
+        }
+    }
+}
@@ -2,8 +2,10 @@ package at.berger.timesup;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TimesUpApplication {
 
     public static void main(String[] args) {
@@ -1,20 +1,30 @@
 package at.berger.timesup.controller;
 
-import at.berger.timesup.entity.GameEntity;
-import at.berger.timesup.entity.GameRoundEntity;
 import at.berger.timesup.entity.GameRoundState;
+import at.berger.timesup.metrics.GameMetrics;
+import at.berger.timesup.model.GameRoundSnapshot;
 import at.berger.timesup.model.GameScreenModel;
+import at.berger.timesup.model.GameSnapshot;
 import at.berger.timesup.model.message.GameException;
 import at.berger.timesup.model.message.Severity;
+import at.berger.timesup.service.GameEventService;
 import at.berger.timesup.service.GameService;
+import io.micrometer.core.instrument.Timer;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 
 @Controller
 @AllArgsConstructor
@@ -22,28 +32,61 @@ public class AjaxController {
 
     private final GameService gameService;
 
+    private final GameEventService gameEventService;
+
+    private final FragmentCache fragmentCache;
+
+    private final ITemplateEngine templateEngine;
+
     private final SessionModel session;
 
-    @GetMapping("/ajax/play")
-    public String getScreen(Model model) {
+    private final GameMetrics gameMetrics;
+
+    @GetMapping("/ajax/events")
+    public SseEmitter getEvents() {
         if (session.getGameId() == null) {
-            return "ajax/noGame";
+            SseEmitter emitter = new SseEmitter();
+            emitter.complete();
+            return emitter;
         }
+        gameService.getGame(session.getGameId());
+        return gameEventService.subscribe(session.getGameId());
+    }
+
+    @GetMapping(value = "/ajax/play", produces = "text/html;charset=UTF-8")
+    @ResponseBody
+    public String getScreen(ServletWebRequest request) {
+        if (session.getGameId() == null) {
+            return render(request, "ajax/noGame", null);
+        }
+        Timer.Sample serviceSample = gameMetrics.startScreen();
+        GameSnapshot game;
+        String template;
         if (session.getPlayerName() == null) {
-            model.addAttribute("player", session);
-            model.addAttribute("game", gameService.getGame(session.getGameId()));
-            return "ajax/roster";
+            game = gameService.getGame(session.getGameId());
+            template = "ajax/roster";
+        } else {
+            GameScreenModel gameScreen = gameService.getGameScreen(session.getGameId(), session.getTeamName(), session.getPlayerName());
+            game = gameScreen.getGame();
+            template = getScreenTemplate(game);
+        }
+        boolean notModified = isNotModified(request, game, template);
+        gameMetrics.stopScreen(serviceSample, "service");
+        if (notModified) {
+            return null;
         }
-        GameScreenModel gameScreen = gameService.getGameScreen(session.getGameId(), session.getTeamName(), session.getPlayerName());
-        GameEntity game = gameScreen.getGame();
-        model.addAttribute("player", session);
-        model.addAttribute("game", game);
+        Timer.Sample renderSample = gameMetrics.startScreen();
+        String screen = renderScreen(request, game, template);
+        gameMetrics.stopScreen(renderSample, "render");
+        return screen;
+    }
 
+    private String getScreenTemplate(GameSnapshot game) {
         switch (game.getState()) {
             case SETUP:
                 return "ajax/awaitSetup";
             case PLAY: {
-                GameRoundEntity currentRound = game.getCurrentRound();
+                GameRoundSnapshot currentRound = game.getCurrentRound();
                 if (!currentRound.getTeamName().equals(session.getTeamName())) {
                     if (GameRoundState.AWAIT_START.equals(currentRound.getState())) {
                         return "ajax/opponentTeamRoundAwait";
@@ -68,8 +111,38 @@ public class AjaxController {
         return "ajax/noGame";
     }
 
+    private boolean isNotModified(ServletWebRequest request, GameSnapshot game, String template) {
+        if (request.getParameter("error") != null) {
+            return false;
+        }
+        request.getResponse().setHeader("Cache-Control", "no-cache");
+        int viewer = Objects.hash(template, session.getGameId(), session.getPlayerName(), session.getTeamName(), session.isAdmin());
+        return request.checkNotModified("\"" + game.getVersion() + "-" + Integer.toHexString(viewer) + "\"");
+    }
+
+    private String renderScreen(ServletWebRequest request, GameSnapshot game, String template) {
+        request.getResponse().setHeader("X-Server-Time", String.valueOf(System.currentTimeMillis()));
+        if (request.getParameter("error") != null) {
+            return render(request, template, game);
+        }
+        FragmentCache.FragmentKey key = new FragmentCache.FragmentKey(game.getId(), game.getVersion(), template,
+                session.isAdmin(), session.isAdmin() ? session.getPlayerName() : null);
+        return fragmentCache.get(key, () -> render(request, template, game));
+    }
+
+    private String render(ServletWebRequest request, String template, GameSnapshot game) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("player", session);
+        variables.put("game", game);
+        HttpServletRequest servletRequest = request.getRequest();
+        WebContext context = new WebContext(servletRequest, request.getResponse(), servletRequest.getServletContext(),
+                request.getLocale(), variables);
+        return templateEngine.process(template, context);
+    }
+
     @ExceptionHandler(GameException.class)
     public String handleError(HttpServletRequest req, GameException ex, RedirectAttributes attributes) {
+        gameMetrics.countError(ex);
         attributes.addAttribute("error", ex.getMessage());
         if (Severity.FATAL.equals(ex.getSeverity())) {
             session.setGameId(null);
@@ -79,4 +152,4 @@ public class AjaxController {
         }
         return "redirect:/ajax/play";
     }
-}
\ No newline at end of file
+}
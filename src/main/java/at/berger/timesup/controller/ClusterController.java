@@ -0,0 +1,31 @@
+package at.berger.timesup.controller;
+
+import at.berger.timesup.entity.GameState;
+import at.berger.timesup.model.LobbyGame;
+import at.berger.timesup.repository.InMemoryGameRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@AllArgsConstructor
+@ConditionalOnProperty("timesup.cluster.nodes")
+public class ClusterController {
+
+    private final InMemoryGameRepository localRepository;
+
+    @GetMapping(value = "/cluster/games", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<LobbyGame> getGames(@RequestParam(required = false) String search,
+                                    @RequestParam int limit,
+                                    @RequestParam List<GameState> state) {
+        return localRepository.getByState(search, 0, limit, state.toArray(new GameState[0])).stream()
+                .map(LobbyGame::of)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,109 @@
+package at.berger.timesup.controller;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+public class FragmentCache {
+
+    static final int MAX_SIZE = 4096;
+
+    private final Map<FragmentKey, CompletableFuture<String>> fragments = new ConcurrentHashMap<>();
+
+    private final Queue<FragmentKey> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    public String get(FragmentKey key, Supplier<String> renderer) {
+        CompletableFuture<String> fragment = fragments.get(key);
+        if (fragment == null) {
+            CompletableFuture<String> rendering = new CompletableFuture<>();
+            fragment = fragments.putIfAbsent(key, rendering);
+            if (fragment == null) {
+                misses.incrementAndGet();
+                insertionOrder.add(key);
+                evict();
+                return render(key, rendering, renderer);
+            }
+        }
+        hits.incrementAndGet();
+        try {
+            return fragment.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public int getSize() {
+        return fragments.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    private String render(FragmentKey key, CompletableFuture<String> rendering, Supplier<String> renderer) {
+        try {
+            String fragment = renderer.get();
+            rendering.complete(fragment);
+            return fragment;
+        } catch (RuntimeException e) {
+            fragments.remove(key, rendering);
+            insertionOrder.remove(key);
+            rendering.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void evict() {
+        while (fragments.size() > MAX_SIZE) {
+            FragmentKey oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            if (fragments.remove(oldest) != null) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class FragmentKey {
+        private final String gameId;
+        private final long version;
+        private final String template;
+        private final boolean admin;
+        private final String adminName;
+    }
+}
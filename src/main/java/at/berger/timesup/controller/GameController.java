@@ -2,7 +2,10 @@ package at.berger.timesup.controller;
 
 import at.berger.timesup.entity.GameEntity;
 import at.berger.timesup.entity.GameState;
+import at.berger.timesup.metrics.GameMetrics;
 import at.berger.timesup.model.GameScreenModel;
+import at.berger.timesup.model.GameSnapshot;
+import at.berger.timesup.model.LobbyPage;
 import at.berger.timesup.model.message.GameException;
 import at.berger.timesup.model.message.GameMessage;
 import at.berger.timesup.model.message.Severity;
@@ -16,6 +19,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.util.HashSet;
 import java.util.List;
 
@@ -27,15 +31,21 @@ public class GameController {
 
     private final SessionModel session;
 
+    private final GameMetrics gameMetrics;
+
     @GetMapping("/start")
-    public String getStart(Model model) {
+    public String getStart(@RequestParam(required = false) String search,
+                           @RequestParam(defaultValue = "0") int page,
+                           Model model) {
         if (session.getGameId() != null) {
             if (session.getPlayerName() != null) {
                 return "redirect:play";
             }
             return "redirect:joinSetupGame";
         }
-        model.addAttribute("games", gameService.getAvailableGames());
+        LobbyPage lobby = gameService.getAvailableGames(search, page);
+        model.addAttribute("lobby", lobby);
+        model.addAttribute("games", lobby.getGames());
         return "start";
     }
 
@@ -50,7 +60,8 @@ public class GameController {
                              @RequestParam(required = false) String description,
                              @RequestParam Integer entriesPerPlayer,
                              @RequestParam Integer roundTime,
-                             @RequestParam boolean assignTeams) {
+                             @RequestParam boolean assignTeams,
+                             HttpServletResponse response) {
         if (session.getGameId() != null) {
             if (session.getPlayerName() != null) {
                 return "redirect:play";
@@ -60,11 +71,12 @@ public class GameController {
         GameEntity game = gameService.createGame(gameName, teams, roundTime * 1000, entriesPerPlayer, description, assignTeams);
         session.setGameId(game.getId());
         session.setAdmin(true);
+        response.addCookie(GameOwnerProxyFilter.gameCookie(game.getId()));
         return "redirect:joinSetupGame";
     }
 
     @GetMapping("/joinGame")
-    public String joinGame(@RequestParam String gameId) {
+    public String joinGame(@RequestParam String gameId, HttpServletResponse response) {
         if (session.getGameId() != null) {
             if (session.getPlayerName() != null) {
                 return "redirect:play";
@@ -74,7 +86,8 @@ public class GameController {
         gameService.validateCanJoin(gameId);
         session.setGameId(gameId);
         session.setAdmin(false);
-        GameEntity game = gameService.getGame(gameId);
+        response.addCookie(GameOwnerProxyFilter.gameCookie(gameId));
+        GameSnapshot game = gameService.getGame(gameId);
         if (GameState.SETUP.equals(game.getState())) {
             return "redirect:joinSetupGame";
         }
@@ -152,7 +165,8 @@ public class GameController {
             return "redirect:start";
         }
         GameScreenModel gameScreen = gameService.getGameScreen(session.getGameId(), session.getTeamName(), session.getPlayerName());
-        GameEntity game = gameScreen.getGame();
+        GameSnapshot game = gameScreen.getGame();
+        model.addAttribute("player", session);
         switch (game.getState()) {
             case SETUP:
                 model.addAttribute("refresh", true);
@@ -160,14 +174,9 @@ public class GameController {
             case END:
                 model.addAttribute("refresh", false);
                 break;
-            case PLAY: {
-                if (game.getCurrentRound().getPlayerName().equals(session.getPlayerName())) {
-                    model.addAttribute("refresh", false);
-                } else {
-                    model.addAttribute("refresh", true);
-                }
+            case PLAY:
+                model.addAttribute("refresh", true);
                 break;
-            }
         }
 
         return "play";
@@ -241,6 +250,7 @@ public class GameController {
 
     @ExceptionHandler(GameException.class)
     public String handleError(HttpServletRequest req, GameException ex, RedirectAttributes attributes) {
+        gameMetrics.countError(ex);
         attributes.addAttribute("error", ex.getMessage());
         if (Severity.FATAL.equals(ex.getSeverity())) {
             session.setGameId(null);
@@ -0,0 +1,21 @@
+package at.berger.timesup.controller;
+
+import at.berger.timesup.repository.cluster.GameOwnerException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import javax.servlet.http.HttpServletRequest;
+
+@Slf4j
+@ControllerAdvice
+public class GameOwnerAdvice {
+
+    @ExceptionHandler(GameOwnerException.class)
+    public ResponseEntity<String> handleMisroutedGame(HttpServletRequest req, GameOwnerException ex) {
+        log.warn("Request {} {} reached a node that does not own it: {}", req.getMethod(), req.getRequestURI(), ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
+    }
+}
@@ -0,0 +1,164 @@
+package at.berger.timesup.controller;
+
+import at.berger.timesup.repository.cluster.ShardedGameRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+@Component
+@ConditionalOnProperty("timesup.cluster.nodes")
+public class GameOwnerProxyFilter extends OncePerRequestFilter {
+
+    public static final String GAME_COOKIE = "TIMESUP_GAME";
+
+    private static final String PROXIED_HEADER = "X-Timesup-Proxied-By";
+
+    private static final Set<String> HOP_BY_HOP_HEADERS = new HashSet<>(Arrays.asList(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization", "te", "trailer",
+            "transfer-encoding", "upgrade", "host", "content-length"));
+
+    private final ShardedGameRepository gameRepository;
+
+    private final String self;
+
+    private final int connectTimeout;
+
+    private final int readTimeout;
+
+    public GameOwnerProxyFilter(ShardedGameRepository gameRepository,
+                                @Value("${timesup.cluster.self}") String self,
+                                @Value("${timesup.cluster.proxy.connect-timeout:1000}") int connectTimeout,
+                                @Value("${timesup.cluster.proxy.read-timeout:660000}") int readTimeout) {
+        this.gameRepository = gameRepository;
+        this.self = self;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    public static Cookie gameCookie(String gameId) {
+        Cookie cookie = new Cookie(GAME_COOKIE, gameId);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        return cookie;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(PROXIED_HEADER) != null || request.getRequestURI().startsWith("/cluster/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String gameId = getGameId(request);
+        if (gameId == null || gameRepository.isLocal(gameId)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        proxy(gameRepository.getOwner(gameId), request, response);
+    }
+
+    private static String getGameId(HttpServletRequest request) {
+        if ("GET".equals(request.getMethod())) {
+            String gameId = request.getParameter("gameId");
+            if (gameId != null && !gameId.isEmpty()) {
+                return gameId;
+            }
+        }
+        Cookie cookie = WebUtils.getCookie(request, GAME_COOKIE);
+        return cookie == null || cookie.getValue().isEmpty() ? null : cookie.getValue();
+    }
+
+    private void proxy(String owner, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String query = request.getQueryString();
+        URL url = new URL(owner + request.getRequestURI() + (query == null ? "" : "?" + query));
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setInstanceFollowRedirects(false);
+            connection.setConnectTimeout(connectTimeout);
+            connection.setReadTimeout(readTimeout);
+            connection.setRequestMethod(request.getMethod());
+            for (String name : Collections.list(request.getHeaderNames())) {
+                if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                    for (String value : Collections.list(request.getHeaders(name))) {
+                        connection.addRequestProperty(name, value);
+                    }
+                }
+            }
+            connection.setRequestProperty(PROXIED_HEADER, self);
+            connection.setRequestProperty("X-Forwarded-For", request.getRemoteAddr());
+            if (request.getContentLengthLong() > 0 || request.getHeader("Transfer-Encoding") != null) {
+                connection.setDoOutput(true);
+                try (OutputStream out = connection.getOutputStream()) {
+                    copy(request.getInputStream(), out, false);
+                }
+            }
+
+            int status = connection.getResponseCode();
+            response.setStatus(status);
+            for (Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+                String name = header.getKey();
+                if (name == null || HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                    continue;
+                }
+                for (String value : header.getValue()) {
+                    response.addHeader(name, "location".equalsIgnoreCase(name) ? relativeTo(owner, value) : value);
+                }
+            }
+            InputStream body = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (body != null) {
+                try (InputStream in = body) {
+                    copy(in, response.getOutputStream(), true);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Cannot proxy {} {} to {}: {}", request.getMethod(), request.getRequestURI(), owner, e.getMessage());
+            connection.disconnect();
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpStatus.BAD_GATEWAY.value());
+            }
+        }
+    }
+
+    private static String relativeTo(String owner, String location) {
+        if (!location.startsWith(owner)) {
+            return location;
+        }
+        String path = location.substring(owner.length());
+        return path.isEmpty() ? "/" : path;
+    }
+
+    private static void copy(InputStream in, OutputStream out, boolean flush) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            if (flush && in.available() == 0) {
+                out.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package at.berger.timesup.controller;
+
+import at.berger.timesup.metrics.GameMetrics;
+import at.berger.timesup.model.GameStateDelta;
+import at.berger.timesup.model.message.GameException;
+import at.berger.timesup.model.message.GameMessage;
+import at.berger.timesup.model.message.Severity;
+import at.berger.timesup.service.GameStateService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@AllArgsConstructor
+public class GameStateController {
+
+    private final GameStateService gameStateService;
+
+    private final SessionModel session;
+
+    private final GameMetrics gameMetrics;
+
+    @GetMapping(value = "/ajax/state", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<GameStateDelta> getState(@RequestParam(required = false) Long since) {
+        if (session.getGameId() == null) {
+            throw new GameException(Severity.FATAL, new GameMessage("Not playing any game"));
+        }
+        GameStateDelta state = gameStateService.getState(session.getGameId(), session.getTeamName(),
+                session.getPlayerName(), since);
+        return ResponseEntity.ok()
+                .header("Cache-Control", "no-cache")
+                .header("X-Server-Time", String.valueOf(System.currentTimeMillis()))
+                .body(state);
+    }
+
+    @ExceptionHandler(GameException.class)
+    public ResponseEntity<GameMessage> handleError(GameException ex) {
+        gameMetrics.countError(ex);
+        HttpStatus status = Severity.FATAL.equals(ex.getSeverity()) ? HttpStatus.GONE : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(ex.getGameMessage());
+    }
+}
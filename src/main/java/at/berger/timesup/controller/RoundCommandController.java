@@ -0,0 +1,51 @@
+package at.berger.timesup.controller;
+
+import at.berger.timesup.metrics.GameMetrics;
+import at.berger.timesup.model.RoundCommandBatch;
+import at.berger.timesup.model.RoundCommandResponse;
+import at.berger.timesup.model.RoundCommandResult;
+import at.berger.timesup.model.message.GameException;
+import at.berger.timesup.model.message.GameMessage;
+import at.berger.timesup.model.message.Severity;
+import at.berger.timesup.service.GameService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collections;
+import java.util.List;
+
+@RestController
+@AllArgsConstructor
+public class RoundCommandController {
+
+    private final GameService gameService;
+
+    private final SessionModel session;
+
+    private final GameMetrics gameMetrics;
+
+    @PostMapping(value = "/ajax/round/commands", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public RoundCommandResponse postCommands(@RequestBody RoundCommandBatch batch) {
+        if (session.getGameId() == null || session.getPlayerName() == null) {
+            throw new GameException(Severity.FATAL, new GameMessage("Not playing any game"));
+        }
+        List<RoundCommandResult> results = gameService.applyRoundCommands(session.getGameId(), session.getPlayerName(),
+                batch.getRoundId(), batch.getCommands());
+        return new RoundCommandResponse(results, gameService.getGame(session.getGameId()), null);
+    }
+
+    @ExceptionHandler(GameException.class)
+    public ResponseEntity<RoundCommandResponse> handleError(GameException ex) {
+        gameMetrics.countError(ex);
+        HttpStatus status = Severity.FATAL.equals(ex.getSeverity()) ? HttpStatus.GONE : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status)
+                .body(new RoundCommandResponse(Collections.emptyList(), null, ex.getMessage()));
+    }
+}
@@ -0,0 +1,39 @@
+package at.berger.timesup.entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class EntryDictionary {
+    private final List<String> entries = new ArrayList<>();
+
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    public int intern(String entry) {
+        Integer id = ids.get(entry);
+        if (id != null) {
+            return id;
+        }
+        ids.put(entry, entries.size());
+        entries.add(entry);
+        return entries.size() - 1;
+    }
+
+    public int idOf(String entry) {
+        return ids.getOrDefault(entry, -1);
+    }
+
+    public String get(int id) {
+        return entries.get(id);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public List<String> asList() {
+        return Collections.unmodifiableList(entries);
+    }
+}
@@ -0,0 +1,72 @@
+package at.berger.timesup.entity;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+public class EntryPool {
+    private final int[] entries;
+
+    private final int[] positions;
+
+    private int size;
+
+    public EntryPool() {
+        this(new BitSet(), 0);
+    }
+
+    public EntryPool(BitSet available, int capacity) {
+        this.entries = new int[available.cardinality()];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, -1);
+        for (int id = available.nextSetBit(0); id >= 0; id = available.nextSetBit(id + 1)) {
+            positions[id] = size;
+            entries[size++] = id;
+        }
+    }
+
+    public EntryPool(int[] entries, int size, int capacity) {
+        this.entries = Arrays.copyOf(entries, size);
+        this.positions = new int[capacity];
+        Arrays.fill(positions, -1);
+        for (int position = 0; position < size; position++) {
+            positions[this.entries[position]] = position;
+        }
+        this.size = size;
+    }
+
+    public boolean remove(int id) {
+        if (!contains(id)) {
+            return false;
+        }
+        int position = positions[id];
+        int last = entries[--size];
+        entries[position] = last;
+        positions[last] = position;
+        positions[id] = -1;
+        return true;
+    }
+
+    public boolean contains(int id) {
+        return id >= 0 && id < positions.length && positions[id] >= 0;
+    }
+
+    public int draw(Random random) {
+        if (size == 0) {
+            return -1;
+        }
+        return entries[random.nextInt(size)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(entries, size);
+    }
+}
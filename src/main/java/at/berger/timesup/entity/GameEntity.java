@@ -21,21 +21,35 @@ public class GameEntity {
     private Integer entriesPerPlayer;
     private Integer roundTime;
     private boolean assignTeams;
+    private long version;
 
     @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
     private List<GameRoundEntity> rounds = new ArrayList<>();
 
     @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
-    private SortedMap<String, GameTeamEntity> teams = new TreeMap<>();
+    private GameRoundEntity currentRound;
 
     @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
-    private Set<String> allEntries = new HashSet<>();
+    private Map<String, GameRoundEntity> lastRounds = new HashMap<>();
 
     @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
-    private Set<String> availableEntries = new HashSet<>();
+    private NavigableMap<String, GameTeamEntity> teams = new TreeMap<>();
 
-    public List<GameTeamEntity> getTeams() {
-        return new ArrayList<>(teams.values());
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private Map<String, String> playerTeams = new HashMap<>();
+
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private EntryDictionary entries = new EntryDictionary();
+
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private BitSet availableEntries = new BitSet();
+
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude @ToString.Exclude
+    private Random random = new Random();
+
+    public Collection<GameTeamEntity> getTeams() {
+        return Collections.unmodifiableCollection(teams.values());
     }
 
     public boolean containsTeam(String teamName) {
@@ -43,15 +57,13 @@ public class GameEntity {
     }
 
     public void addEntries(Set<String> entries) {
-        allEntries.addAll(entries);
-        availableEntries.addAll(entries);
+        for (String entry : entries) {
+            availableEntries.set(this.entries.intern(entry));
+        }
     }
 
     public GameRoundEntity getCurrentRound() {
-        if (rounds.isEmpty()) {
-            return null;
-        }
-        return rounds.get(rounds.size() - 1);
+        return currentRound;
     }
 
     public void addTeams(List<GameTeamEntity> teams) {
@@ -73,35 +85,92 @@ public class GameEntity {
     }
 
     public void addPlayer(String teamName, String playerName) {
+        String playerTeam = playerTeams.get(playerName);
+        if (playerTeam != null) {
+            throw new GameException(new GameMessage("Player with that name already exists in team " + playerTeam));
+        }
         getNonNullTeam(teamName).addPlayer(playerName);
+        playerTeams.put(playerName, teamName);
+    }
+
+    public void movePlayer(String playerName, String teamName) {
+        GameTeamEntity targetTeam = getNonNullTeam(teamName);
+        GameTeamEntity currentTeam = getPlayerTeam(playerName);
+        currentTeam.removePlayer(playerName);
+        targetTeam.addPlayer(playerName);
+        playerTeams.put(playerName, teamName);
+    }
+
+    public Map<String, String> getPlayerTeams() {
+        return Collections.unmodifiableMap(playerTeams);
+    }
+
+    public boolean containsPlayer(String teamName, String playerName) {
+        return teamName != null && teamName.equals(playerTeams.get(playerName));
     }
 
     public GameTeamEntity getRandomTeam() {
-        Random generator = new Random();
         GameTeamEntity[] values = teams.values().toArray(new GameTeamEntity[0]);
-        return values[generator.nextInt(values.length)];
+        return values[random.nextInt(values.length)];
     }
 
     public void addRound(GameRoundEntity newRound) {
+        getNonNullTeam(newRound.getTeamName()).addRoundPlayer(newRound.getPlayerName());
         rounds.add(newRound);
+        lastRounds.put(newRound.getTeamName(), newRound);
+        if (currentRound != null) {
+            currentRound.releaseEntries();
+        }
+        currentRound = newRound;
+    }
+
+    public GameRoundEntity getRound(String roundId) {
+        for (int i = rounds.size() - 1; i >= 0; i--) {
+            if (rounds.get(i).getId().equals(roundId)) {
+                return rounds.get(i);
+            }
+        }
+        return null;
+    }
+
+    public List<GameRoundEntity> getRounds() {
+        return Collections.unmodifiableList(rounds);
+    }
+
+    public int getRoundCount() {
+        return rounds.size();
+    }
+
+    public boolean addCorrectEntry(String entry) {
+        GameRoundEntity currentRound = getCurrentRound();
+        boolean hasMoreEntries = currentRound.addCorrectEntry(entry);
+        getNonNullTeam(currentRound.getTeamName()).addCorrectEntry(currentRound.getPlayerName());
+        return hasMoreEntries;
+    }
+
+    public EntryDictionary getEntryDictionary() {
+        return entries;
+    }
+
+    public EntryPool getAvailableEntries() {
+        return new EntryPool(availableEntries, entries.size());
     }
 
-    public List<String> getAvailableEntries() {
-        return new ArrayList<>(availableEntries);
+    public BitSet getAvailableEntryIds() {
+        return (BitSet) availableEntries.clone();
     }
 
-    public void removeEntries(List<String> correctEntries) {
-        availableEntries.removeAll(correctEntries);
+    public void removeEntries(BitSet correctEntries) {
+        availableEntries.andNot(correctEntries);
     }
 
     public GameTeamEntity getNextTeam(String team) {
-        GameTeamEntity currentTeam = getNonNullTeam(team);
-        List<GameTeamEntity> teamList = new ArrayList<>(teams.values());
-        int teamIndex = teamList.indexOf(currentTeam);
-        if (teamIndex + 1 == teamList.size()) {
-            return teamList.get(0);
+        getNonNullTeam(team);
+        Map.Entry<String, GameTeamEntity> nextTeam = teams.higherEntry(team);
+        if (nextTeam == null) {
+            return teams.firstEntry().getValue();
         }
-        return teamList.get(teamIndex + 1);
+        return nextTeam.getValue();
     }
 
     private GameTeamEntity getNonNullTeam(String teamName) {
@@ -113,9 +182,7 @@ public class GameEntity {
     }
 
     public GameRoundEntity getLastRound(String teamName) {
-        return rounds.stream()
-                .filter(r -> r.getTeamName().equals(teamName)).reduce((r1, r2) -> r2)
-                .orElse(null);
+        return lastRounds.get(teamName);
     }
 
     public boolean hasMoreEntries() {
@@ -123,72 +190,42 @@ public class GameEntity {
     }
 
     public void resetEntries() {
-        availableEntries = new HashSet<>(allEntries);
+        availableEntries.set(0, entries.size());
     }
 
     public void removePlayer(String playerName, boolean force) {
         GameTeamEntity team = getPlayerTeam(playerName);
-        if (!force && team.getPlayers().size() <= 1) {
+        if (!force && team.getPlayerCount() <= 1) {
             throw new GameException(new GameMessage("Cannot remove player of team that has one or less players"));
         }
         team.removePlayer(playerName);
+        playerTeams.remove(playerName);
     }
 
     public GameTeamEntity getPlayerTeam(String playerName) {
-        return teams.values().stream()
-                .filter(t -> t.getPlayers().contains(playerName))
-                .findAny()
-                .orElseThrow(() -> new GameException(new GameMessage(String.format("Player %s is not in any team", playerName))));
+        String teamName = playerTeams.get(playerName);
+        if (teamName == null) {
+            throw new GameException(new GameMessage(String.format("Player %s is not in any team", playerName)));
+        }
+        return teams.get(teamName);
     }
 
     public List<TeamScore> getTeamScores() {
-        Map<String, List<GameRoundEntity>> roundsByTeam = rounds.stream()
-                .collect(Collectors.groupingBy(GameRoundEntity::getTeamName));
-
         return teams.values().stream()
-                .map(team -> {
-                    List<GameRoundEntity> teamRounds = roundsByTeam.get(team.getName());
-                    if (teamRounds != null) {
-                        int teamScore = teamRounds.stream()
-                                .map(r -> r.getCorrectEntries().size())
-                                .reduce(Integer::sum)
-                                .orElse(0);
-                        Map<String, List<GameRoundEntity>> teamRoundsByPlayer = teamRounds.stream()
-                                .collect(Collectors.groupingBy(GameRoundEntity::getPlayerName));
-                        Collection<String> allPlayers = new TreeSet<>(team.getPlayers());
-                        allPlayers.addAll(teamRoundsByPlayer.keySet());
-                        List<PlayerScore> playerScores = allPlayers.stream()
-                                .map(player -> {
-                                    List<GameRoundEntity> playerRounds = teamRoundsByPlayer.get(player);
-                                    if (playerRounds != null) {
-                                        Integer playerScore = playerRounds.stream()
-                                                .map(r -> r.getCorrectEntries().size())
-                                                .reduce(Integer::sum)
-                                                .orElse(0);
-                                        return new PlayerScore(player, playerScore, !team.getPlayers().contains(player));
-                                    } else {
-                                        return new PlayerScore(player, 0, false);
-                                    }
-                                }).collect(Collectors.toList());
-                        return new TeamScore(team.getName(), teamScore, playerScores);
-                    } else {
-                        List<PlayerScore> playerScores = team.getPlayers().stream()
-                                .map(p -> new PlayerScore(p, 0, false))
-                                .collect(Collectors.toList());
-                        return new TeamScore(team.getName(), 0, playerScores);
-                    }
-                }).collect(Collectors.toList());
+                .map(GameTeamEntity::getTeamScore)
+                .collect(Collectors.toList());
     }
 
     public int getPlayerCount() {
-        return getTeams().stream()
-                .map(t -> t.getPlayers().size())
-                .reduce(Integer::sum)
-                .orElse(0);
+        return playerTeams.size();
+    }
+
+    public Collection<String> getTotalEntries() {
+        return entries.asList();
     }
 
-    public List<String> getTotalEntries() {
-        return new ArrayList<>(allEntries);
+    public int getTotalEntryCount() {
+        return entries.size();
     }
 
     public GameTeamEntity getTeam(String teamName) {
@@ -202,47 +239,43 @@ public class GameEntity {
     public GameTeamEntity getRandomTeamWithLeastPlayers() {
         return teams.values().stream()
                 .reduce((t1, t2) -> {
-                    if (t1.getPlayers().size() > t2.getPlayers().size()) {
+                    if (t1.getPlayerCount() > t2.getPlayerCount()) {
                         return t2;
                     }
-                    if (t2.getPlayers().size() > t1.getPlayers().size()) {
+                    if (t2.getPlayerCount() > t1.getPlayerCount()) {
                         return t1;
                     }
-                    Random generator = new Random();
                     GameTeamEntity[] values = new GameTeamEntity[] { t1, t2 };
-                    return values[generator.nextInt(values.length)];
+                    return values[random.nextInt(values.length)];
                 }).orElseThrow(() -> new GameException(new GameMessage("No teams found")));
     }
 
     public GameTeamEntity getRandomTeamWithMostPlayers() {
         return teams.values().stream()
                 .reduce((t1, t2) -> {
-                    if (t1.getPlayers().size() > t2.getPlayers().size()) {
+                    if (t1.getPlayerCount() > t2.getPlayerCount()) {
                         return t1;
                     }
-                    if (t2.getPlayers().size() > t1.getPlayers().size()) {
+                    if (t2.getPlayerCount() > t1.getPlayerCount()) {
                         return t2;
                     }
-                    Random generator = new Random();
                     GameTeamEntity[] values = new GameTeamEntity[] { t1, t2 };
-                    return values[generator.nextInt(values.length)];
+                    return values[random.nextInt(values.length)];
                 }).orElseThrow(() -> new GameException(new GameMessage("No teams found")));
     }
 
 
-    @Data
-    @AllArgsConstructor
+    @Value
     public static class TeamScore {
-        private String team;
-        private Integer score;
-        private List<PlayerScore> players = new ArrayList<>();
+        String team;
+        Integer score;
+        List<PlayerScore> players;
     }
 
-    @Data
-    @AllArgsConstructor
+    @Value
     public static class PlayerScore {
-        private String player;
-        private Integer score;
-        private boolean synthetic;
+        String player;
+        Integer score;
+        boolean synthetic;
     }
 }
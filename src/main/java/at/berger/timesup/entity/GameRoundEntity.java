@@ -6,9 +6,12 @@ import lombok.*;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
 
 @Data
 @AllArgsConstructor
@@ -24,55 +27,105 @@ public class GameRoundEntity {
     private Instant inProgressTimestamp;
 
     @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
-    private List<String> availableEntries = new ArrayList<>();
+    private EntryPool availableEntries = new EntryPool();
 
     @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
-    private List<String> correctEntries = new ArrayList<>();
+    private BitSet correctEntries = new BitSet();
 
-    public void addEntries(List<String> entries) {
-        availableEntries.addAll(entries);
+    @Setter(AccessLevel.NONE)
+    private long commandSequence;
+
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private Set<String> commandKeys = new HashSet<>();
+
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude @ToString.Exclude
+    private EntryDictionary dictionary = new EntryDictionary();
+
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude @ToString.Exclude
+    private Random random = new Random();
+
+    public void addEntries(EntryDictionary dictionary, EntryPool entries, Random random) {
+        this.dictionary = dictionary;
+        this.availableEntries = entries;
+        this.random = random;
         currentEntry = getRandomEntry();
     }
 
+    public void restoreProgress(int[] availableEntries, int capacity, BitSet correctEntries, long commandSequence,
+                                Collection<String> commandKeys) {
+        this.availableEntries = availableEntries.length == 0 ? new EntryPool()
+                : new EntryPool(availableEntries, availableEntries.length, capacity);
+        this.correctEntries = (BitSet) correctEntries.clone();
+        this.commandSequence = commandSequence;
+        this.commandKeys = new HashSet<>(commandKeys);
+    }
+
+    public void releaseEntries() {
+        availableEntries = new EntryPool();
+    }
+
     public boolean addCorrectEntry(String entry) {
-        removeEntry(entry);
-        correctEntries.add(entry);
+        int id = validateEntry(entry);
+        availableEntries.remove(id);
+        correctEntries.set(id);
+        currentEntry = getRandomEntry();
         return currentEntry != null;
     }
 
     public boolean removeEntry(String entry) {
-        validateEntry(entry);
-        availableEntries.remove(entry);
+        availableEntries.remove(validateEntry(entry));
         currentEntry = getRandomEntry();
         return currentEntry != null;
     }
 
-    private void validateEntry(String entry) {
-        if (!availableEntries.contains(entry)) {
+    private int validateEntry(String entry) {
+        int id = dictionary.idOf(entry);
+        if (!availableEntries.contains(id)) {
             throw new GameException(new GameMessage("Entry " + entry + " is not among available entries"));
         }
-        if (correctEntries.contains(entry)) {
+        if (correctEntries.get(id)) {
             throw new GameException(new GameMessage("Entry " + entry + " is already correct"));
         }
         if (!currentEntry.equals(entry)) {
             throw new GameException(new GameMessage("Entry " + entry + " is not current entry"));
         }
+        return id;
     }
 
     public String getRandomEntry() {
-        if (availableEntries.size() == 0) {
-            return null;
-        }
-        Random rand = new Random();
-        return availableEntries.get(rand.nextInt(availableEntries.size()));
+        int id = availableEntries.draw(random);
+        return id < 0 ? null : dictionary.get(id);
     }
 
-    public List<String>  getCorrectEntries() {
-        return new ArrayList<>(correctEntries);
+    public BitSet getCorrectEntryIds() {
+        return (BitSet) correctEntries.clone();
     }
 
-    public List<String>  getAvailableEntries() {
-        return new ArrayList<>(availableEntries);
+    public int getCorrectEntryCount() {
+        return correctEntries.cardinality();
+    }
+
+    public int[] getAvailableEntryIds() {
+        return availableEntries.toArray();
+    }
+
+    public int getAvailableEntryCount() {
+        return availableEntries.size();
+    }
+
+    public boolean isCommandApplied(String key, long sequence) {
+        return sequence <= commandSequence || commandKeys.contains(key);
+    }
+
+    public void recordCommand(String key, long sequence) {
+        commandKeys.add(key);
+        commandSequence = Math.max(commandSequence, sequence);
+    }
+
+    public Set<String> getCommandKeys() {
+        return Collections.unmodifiableSet(commandKeys);
     }
 
     public void rejectEntry(String entry) {
@@ -80,6 +133,13 @@ public class GameRoundEntity {
         currentEntry = getRandomEntry();
     }
 
+    public Long getEndTimestamp() {
+        if (inProgressTimestamp == null) {
+            return null;
+        }
+        return inProgressTimestamp.toEpochMilli() + roundTime;
+    }
+
     public Integer getRemainingTime() {
         if  (inProgressTimestamp == null) {
             return roundTime;
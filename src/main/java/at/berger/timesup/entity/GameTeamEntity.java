@@ -5,9 +5,15 @@ import at.berger.timesup.model.message.GameMessage;
 import lombok.*;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Data
 @AllArgsConstructor
@@ -18,28 +24,56 @@ public class GameTeamEntity {
     @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
     private List<String> players = new ArrayList<>();
 
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private Set<String> playerSet = new HashSet<>();
+
+    @Setter(AccessLevel.NONE)
+    private int score;
+
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private SortedMap<String, Integer> playerScores = new TreeMap<>();
+
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private Set<String> roundPlayers = new HashSet<>();
+
     public GameTeamEntity(String name) {
         this.name = name;
     }
 
     public List<String> getPlayers() {
-        return new ArrayList<>(players);
+        return Collections.unmodifiableList(players);
+    }
+
+    public SortedMap<String, Integer> getPlayerScores() {
+        return Collections.unmodifiableSortedMap(playerScores);
+    }
+
+    public Set<String> getRoundPlayers() {
+        return Collections.unmodifiableSet(roundPlayers);
+    }
+
+    public int getPlayerCount() {
+        return players.size();
+    }
+
+    public boolean containsPlayer(String playerName) {
+        return playerSet.contains(playerName);
     }
 
     public void addPlayer(String playerName) {
-        if (players.contains(playerName)) {
+        if (!playerSet.add(playerName)) {
             throw new GameException(new GameMessage("Player with that name already exists in team " + name));
         }
         players.add(playerName);
+        playerScores.putIfAbsent(playerName, 0);
     }
 
-    public String getRandomPlayer() {
-        Random rand = new Random();
-        return players.get(rand.nextInt(players.size()));
+    public String getRandomPlayer(Random random) {
+        return players.get(random.nextInt(players.size()));
     }
 
     public String getNextPlayer(String player) {
-        if (!players.contains(player)) {
+        if (!playerSet.contains(player)) {
             throw new GameException(new GameMessage("Team " + name + " does not contain player " + player));
         }
         int teamIndex = players.indexOf(player);
@@ -50,6 +84,33 @@ public class GameTeamEntity {
     }
 
     public void removePlayer(String playerName) {
-        players.remove(playerName);
+        if (playerSet.remove(playerName)) {
+            players.remove(playerName);
+        }
+        if (!roundPlayers.contains(playerName)) {
+            playerScores.remove(playerName);
+        }
+    }
+
+    public void addRoundPlayer(String playerName) {
+        roundPlayers.add(playerName);
+        playerScores.putIfAbsent(playerName, 0);
+    }
+
+    public void addCorrectEntry(String playerName) {
+        score++;
+        playerScores.merge(playerName, 1, Integer::sum);
+    }
+
+    public void restoreScore(int score, Map<String, Integer> playerScores) {
+        this.score = score;
+        this.playerScores = new TreeMap<>(playerScores);
+    }
+
+    public GameEntity.TeamScore getTeamScore() {
+        List<GameEntity.PlayerScore> scores = playerScores.entrySet().stream()
+                .map(e -> new GameEntity.PlayerScore(e.getKey(), e.getValue(), !playerSet.contains(e.getKey())))
+                .collect(Collectors.toList());
+        return new GameEntity.TeamScore(name, score, Collections.unmodifiableList(scores));
     }
 }
@@ -0,0 +1,58 @@
+package at.berger.timesup.executor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Component
+public class GameExecutors {
+
+    private final boolean virtualThreads;
+
+    public GameExecutors(@Value("${timesup.threads.virtual:false}") boolean virtualThreads) {
+        this.virtualThreads = virtualThreads && isVirtualThreadsSupported();
+        if (virtualThreads && !this.virtualThreads) {
+            log.warn("Virtual threads requested but not supported by Java {}, using platform threads",
+                    System.getProperty("java.version"));
+        }
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public ExecutorService newExecutor(String name, int platformThreads) {
+        if (virtualThreads) {
+            log.info("Running {} on virtual threads", name);
+            return newVirtualThreadPerTaskExecutor();
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(platformThreads,
+                r -> new Thread(r, name + "-" + threadCount.incrementAndGet()));
+    }
+
+    private static boolean isVirtualThreadsSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot create virtual thread executor", e);
+        }
+    }
+}
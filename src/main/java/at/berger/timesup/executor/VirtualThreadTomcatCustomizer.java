@@ -0,0 +1,22 @@
+package at.berger.timesup.executor;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty("timesup.threads.virtual")
+public class VirtualThreadTomcatCustomizer implements TomcatProtocolHandlerCustomizer<ProtocolHandler> {
+
+    private final GameExecutors gameExecutors;
+
+    @Override
+    public void customize(ProtocolHandler protocolHandler) {
+        if (gameExecutors.isVirtualThreads()) {
+            protocolHandler.setExecutor(gameExecutors.newExecutor("http-request", 0));
+        }
+    }
+}
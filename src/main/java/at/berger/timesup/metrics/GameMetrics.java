@@ -0,0 +1,43 @@
+package at.berger.timesup.metrics;
+
+import at.berger.timesup.model.message.GameException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+public class GameMetrics {
+
+    public static final String COMMAND_TIMER = "timesup.command";
+
+    private final MeterRegistry registry;
+
+    public <T> T command(Class<?> type, String method, Supplier<T> operation) {
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            return operation.get();
+        } catch (RuntimeException e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(registry.timer(COMMAND_TIMER, "class", type.getName(), "method", method, "exception", exception));
+        }
+    }
+
+    public Timer.Sample startScreen() {
+        return Timer.start(registry);
+    }
+
+    public void stopScreen(Timer.Sample sample, String phase) {
+        sample.stop(registry.timer("timesup.screen", "phase", phase));
+    }
+
+    public void countError(GameException exception) {
+        registry.counter("timesup.errors", "severity", exception.getSeverity().name()).increment();
+    }
+}
@@ -0,0 +1,90 @@
+package at.berger.timesup.metrics;
+
+import at.berger.timesup.controller.FragmentCache;
+import at.berger.timesup.entity.GameState;
+import at.berger.timesup.repository.GameEvictor;
+import at.berger.timesup.repository.GameRepository;
+import at.berger.timesup.repository.OffHeapGameStore;
+import at.berger.timesup.repository.journal.GameCheckpointer;
+import at.berger.timesup.repository.journal.GameJournal;
+import at.berger.timesup.service.GameEventService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+public class GameMetricsBinder implements MeterBinder {
+
+    private final GameRepository gameRepository;
+
+    private final GameEventService gameEventService;
+
+    private final FragmentCache fragmentCache;
+
+    private final GameJournal journal;
+
+    private final GameCheckpointer checkpointer;
+
+    private final OffHeapGameStore idleGames;
+
+    private final GameEvictor evictor;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (GameState state : GameState.values()) {
+            Gauge.builder("timesup.games", gameRepository, r -> r.getGameCount(state))
+                    .tag("state", state.name())
+                    .register(registry);
+        }
+        Gauge.builder("timesup.games.idle", idleGames, OffHeapGameStore::getGameCount)
+                .register(registry);
+        Gauge.builder("timesup.games.idle.size", idleGames, OffHeapGameStore::getSize)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("timesup.games.evicted", evictor, GameEvictor::getEvictions)
+                .register(registry);
+        Gauge.builder("timesup.players", gameRepository, GameRepository::getPlayerCount)
+                .register(registry);
+        Gauge.builder("timesup.sse.connections", gameEventService, GameEventService::getConnectionCount)
+                .register(registry);
+
+        Gauge.builder("timesup.timers.pending", gameRepository, GameRepository::getPendingTimers)
+                .register(registry);
+        TimeGauge.builder("timesup.timers.lag", gameRepository, TimeUnit.MILLISECONDS,
+                r -> r.getTimerFiringLag(TimeUnit.MILLISECONDS))
+                .register(registry);
+        TimeGauge.builder("timesup.timers.lag.max", gameRepository, TimeUnit.MILLISECONDS,
+                r -> r.getMaxTimerFiringLag(TimeUnit.MILLISECONDS))
+                .register(registry);
+
+        FunctionCounter.builder("timesup.fragments.hits", fragmentCache, FragmentCache::getHits)
+                .register(registry);
+        FunctionCounter.builder("timesup.fragments.misses", fragmentCache, FragmentCache::getMisses)
+                .register(registry);
+        FunctionCounter.builder("timesup.fragments.evictions", fragmentCache, FragmentCache::getEvictions)
+                .register(registry);
+        Gauge.builder("timesup.fragments.size", fragmentCache, FragmentCache::getSize)
+                .register(registry);
+
+        Gauge.builder("timesup.journal.pending", journal, GameJournal::getPendingRecords)
+                .register(registry);
+        TimeGauge.builder("timesup.journal.restore", journal, TimeUnit.MILLISECONDS,
+                j -> j.getRestoreTime(TimeUnit.MILLISECONDS))
+                .register(registry);
+        TimeGauge.builder("timesup.checkpoint.duration", checkpointer, TimeUnit.MILLISECONDS,
+                c -> c.getLastDuration(TimeUnit.MILLISECONDS))
+                .register(registry);
+        Gauge.builder("timesup.checkpoint.size", checkpointer, GameCheckpointer::getLastSize)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("timesup.checkpoint.games", checkpointer, GameCheckpointer::getLastGameCount)
+                .register(registry);
+    }
+}
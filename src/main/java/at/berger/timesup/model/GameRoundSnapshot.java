@@ -0,0 +1,47 @@
+package at.berger.timesup.model;
+
+import at.berger.timesup.entity.GameRoundEntity;
+import at.berger.timesup.entity.GameRoundState;
+import lombok.Value;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Value
+public class GameRoundSnapshot {
+    String id;
+    GameRoundState state;
+    String teamName;
+    String playerName;
+    String currentEntry;
+    Integer roundTime;
+    Instant startTimestamp;
+    Instant inProgressTimestamp;
+    int availableEntryCount;
+    int correctEntryCount;
+    long commandSequence;
+
+    public static GameRoundSnapshot of(GameRoundEntity round) {
+        if (round == null) {
+            return null;
+        }
+        return new GameRoundSnapshot(round.getId(), round.getState(), round.getTeamName(), round.getPlayerName(),
+                round.getCurrentEntry(), round.getRoundTime(), round.getStartTimestamp(), round.getInProgressTimestamp(),
+                round.getAvailableEntryCount(), round.getCorrectEntryCount(), round.getCommandSequence());
+    }
+
+    public Long getEndTimestamp() {
+        if (inProgressTimestamp == null) {
+            return null;
+        }
+        return inProgressTimestamp.toEpochMilli() + roundTime;
+    }
+
+    public Integer getRemainingTime() {
+        if (inProgressTimestamp == null) {
+            return roundTime;
+        }
+        Duration between = Duration.between(inProgressTimestamp, Instant.now());
+        return roundTime - Math.toIntExact(between.toMillis());
+    }
+}
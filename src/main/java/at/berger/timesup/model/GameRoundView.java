@@ -0,0 +1,29 @@
+package at.berger.timesup.model;
+
+import at.berger.timesup.entity.GameRoundState;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GameRoundView {
+    String id;
+    GameRoundState state;
+    String teamName;
+    String playerName;
+    String currentEntry;
+    Long endTimestamp;
+    int availableEntryCount;
+    int correctEntryCount;
+
+    public static GameRoundView of(GameRoundSnapshot round, String viewer) {
+        if (round == null) {
+            return null;
+        }
+        boolean activePlayer = GameRoundState.IN_PROGRESS.equals(round.getState())
+                && round.getPlayerName().equals(viewer);
+        return new GameRoundView(round.getId(), round.getState(), round.getTeamName(), round.getPlayerName(),
+                activePlayer ? round.getCurrentEntry() : null, round.getEndTimestamp(),
+                round.getAvailableEntryCount(), round.getCorrectEntryCount());
+    }
+}
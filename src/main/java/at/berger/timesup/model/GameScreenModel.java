@@ -1,6 +1,5 @@
 package at.berger.timesup.model;
 
-import at.berger.timesup.entity.GameEntity;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,5 +8,5 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Data
 public class GameScreenModel {
-    private GameEntity game;
+    private GameSnapshot game;
 }
@@ -0,0 +1,50 @@
+package at.berger.timesup.model;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.entity.GamePhase;
+import at.berger.timesup.entity.GameState;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Value
+public class GameSnapshot {
+    String id;
+    String name;
+    GameState state;
+    GamePhase phase;
+    String description;
+    Integer entriesPerPlayer;
+    Integer roundTime;
+    boolean assignTeams;
+    long version;
+    List<GameTeamSnapshot> teams;
+    List<GameEntity.TeamScore> teamScores;
+    GameRoundSnapshot currentRound;
+    int totalEntryCount;
+    int playerCount;
+
+    @Getter(AccessLevel.NONE)
+    Map<String, String> playerTeams;
+
+    public static GameSnapshot of(GameEntity game) {
+        List<GameTeamSnapshot> teams = game.getTeams().stream()
+                .map(GameTeamSnapshot::of)
+                .collect(Collectors.toList());
+        return new GameSnapshot(game.getId(), game.getName(), game.getState(), game.getPhase(), game.getDescription(),
+                game.getEntriesPerPlayer(), game.getRoundTime(), game.isAssignTeams(), game.getVersion(),
+                Collections.unmodifiableList(teams), Collections.unmodifiableList(game.getTeamScores()),
+                GameRoundSnapshot.of(game.getCurrentRound()), game.getTotalEntryCount(), game.getPlayerCount(),
+                new HashMap<>(game.getPlayerTeams()));
+    }
+
+    public boolean containsPlayer(String teamName, String playerName) {
+        return teamName != null && teamName.equals(playerTeams.get(playerName));
+    }
+}
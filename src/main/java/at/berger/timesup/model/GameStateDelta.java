@@ -0,0 +1,75 @@
+package at.berger.timesup.model;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.entity.GamePhase;
+import at.berger.timesup.entity.GameState;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GameStateDelta {
+    String gameId;
+    long version;
+    Long sinceVersion;
+    GameState state;
+    GamePhase phase;
+    GameRoundView round;
+    List<GameEntity.TeamScore> scores;
+    List<GameTeamSnapshot> teams;
+    Set<String> changed;
+
+    public static GameStateDelta full(GameSnapshot game, String viewer) {
+        return new GameStateDelta(game.getId(), game.getVersion(), null, game.getState(), game.getPhase(),
+                GameRoundView.of(game.getCurrentRound(), viewer), game.getTeamScores(), game.getTeams(), null);
+    }
+
+    public static GameStateDelta between(GameSnapshot base, GameSnapshot game, String viewer) {
+        GameRoundView baseRound = GameRoundView.of(base.getCurrentRound(), viewer);
+        GameRoundView round = GameRoundView.of(game.getCurrentRound(), viewer);
+        Set<String> changed = new LinkedHashSet<>();
+        return new GameStateDelta(game.getId(), game.getVersion(), base.getVersion(),
+                changed(changed, "state", base.getState(), game.getState()),
+                changed(changed, "phase", base.getPhase(), game.getPhase()),
+                changed(changed, "round", baseRound, round),
+                changed(changed, "scores", base.getTeamScores(), game.getTeamScores(), GameEntity.TeamScore::getTeam),
+                changed(changed, "teams", base.getTeams(), game.getTeams(), GameTeamSnapshot::getName),
+                changed);
+    }
+
+    private static <T> T changed(Set<String> changed, String field, T base, T current) {
+        if (Objects.equals(base, current)) {
+            return null;
+        }
+        changed.add(field);
+        return current;
+    }
+
+    private static <T> List<T> changed(Set<String> changed, String field, List<T> base, List<T> current,
+                                       Function<T, String> name) {
+        Map<String, T> baseByName = new HashMap<>();
+        for (T item : base) {
+            baseByName.put(name.apply(item), item);
+        }
+        List<T> changedItems = new ArrayList<>();
+        for (T item : current) {
+            if (!item.equals(baseByName.get(name.apply(item)))) {
+                changedItems.add(item);
+            }
+        }
+        if (changedItems.isEmpty()) {
+            return null;
+        }
+        changed.add(field);
+        return changedItems;
+    }
+}
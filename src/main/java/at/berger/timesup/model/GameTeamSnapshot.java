@@ -0,0 +1,18 @@
+package at.berger.timesup.model;
+
+import at.berger.timesup.entity.GameTeamEntity;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Value
+public class GameTeamSnapshot {
+    String name;
+    List<String> players;
+
+    public static GameTeamSnapshot of(GameTeamEntity team) {
+        return new GameTeamSnapshot(team.getName(), Collections.unmodifiableList(new ArrayList<>(team.getPlayers())));
+    }
+}
@@ -0,0 +1,28 @@
+package at.berger.timesup.model;
+
+import at.berger.timesup.entity.GameState;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collections;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class LobbyGame {
+    private String id;
+    private String name;
+    private GameState state;
+    private String description;
+    private int playerCount;
+
+    public static LobbyGame of(GameSnapshot game) {
+        return new LobbyGame(game.getId(), game.getName(), game.getState(), game.getDescription(), game.getPlayerCount());
+    }
+
+    public GameSnapshot toSnapshot() {
+        return new GameSnapshot(id, name, state, null, description, null, null, false, 0,
+                Collections.emptyList(), Collections.emptyList(), null, 0, playerCount, Collections.emptyMap());
+    }
+}
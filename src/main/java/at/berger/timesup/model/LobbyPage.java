@@ -0,0 +1,18 @@
+package at.berger.timesup.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class LobbyPage {
+    private List<GameSnapshot> games = new ArrayList<>();
+    private String search;
+    private int page;
+    private boolean hasNext;
+}
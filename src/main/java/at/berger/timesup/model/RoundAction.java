@@ -0,0 +1,6 @@
+package at.berger.timesup.model;
+
+public enum RoundAction {
+    CORRECT,
+    REJECT;
+}
@@ -0,0 +1,15 @@
+package at.berger.timesup.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class RoundCommand {
+    private long sequence;
+    private String key;
+    private RoundAction action;
+    private String entry;
+}
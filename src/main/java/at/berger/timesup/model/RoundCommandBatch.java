@@ -0,0 +1,16 @@
+package at.berger.timesup.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class RoundCommandBatch {
+    private String roundId;
+    private List<RoundCommand> commands = new ArrayList<>();
+}
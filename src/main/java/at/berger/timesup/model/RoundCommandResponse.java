@@ -0,0 +1,12 @@
+package at.berger.timesup.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class RoundCommandResponse {
+    List<RoundCommandResult> results;
+    GameSnapshot game;
+    String error;
+}
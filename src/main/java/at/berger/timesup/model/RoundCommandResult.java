@@ -0,0 +1,11 @@
+package at.berger.timesup.model;
+
+import lombok.Value;
+
+@Value
+public class RoundCommandResult {
+    long sequence;
+    String key;
+    RoundCommandStatus status;
+    String message;
+}
@@ -0,0 +1,8 @@
+package at.berger.timesup.model;
+
+public enum RoundCommandStatus {
+    APPLIED,
+    DUPLICATE,
+    REJECTED,
+    SKIPPED;
+}
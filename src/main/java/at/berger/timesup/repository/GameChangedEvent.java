@@ -0,0 +1,12 @@
+package at.berger.timesup.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class GameChangedEvent {
+    private final String gameId;
+    private final long version;
+    private final boolean removed;
+}
@@ -0,0 +1,105 @@
+package at.berger.timesup.repository;
+
+import at.berger.timesup.entity.GameState;
+import at.berger.timesup.model.GameSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class GameEvictor {
+
+    private static final Comparator<GameActivity> EVICTION_ORDER = Comparator
+            .comparing((GameActivity activity) -> !GameState.END.equals(activity.getGame().getState()))
+            .thenComparingLong(GameActivity::getLastActivity);
+
+    private final GameRepository gameRepository;
+
+    private final long ttl;
+
+    private final long endTtl;
+
+    private final int maxGames;
+
+    private final long maxEntries;
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    public GameEvictor(GameRepository gameRepository,
+                       @Value("${timesup.eviction.ttl:14400000}") long ttl,
+                       @Value("${timesup.eviction.end-ttl:900000}") long endTtl,
+                       @Value("${timesup.eviction.max-games:10000}") int maxGames,
+                       @Value("${timesup.eviction.max-entries:1000000}") long maxEntries) {
+        this.gameRepository = gameRepository;
+        this.ttl = ttl;
+        this.endTtl = endTtl;
+        this.maxGames = maxGames;
+        this.maxEntries = maxEntries;
+    }
+
+    @Scheduled(fixedDelayString = "${timesup.eviction.interval:10000}")
+    public void evict() {
+        evict(System.currentTimeMillis());
+    }
+
+    void evict(long now) {
+        List<GameActivity> expired = new ArrayList<>();
+        List<GameActivity> live = new ArrayList<>();
+        long[] entries = new long[1];
+        gameRepository.forEachActivity((game, lastActivity) -> {
+            long gameTtl = GameState.END.equals(game.getState()) ? endTtl : ttl;
+            if (now - lastActivity >= gameTtl) {
+                expired.add(new GameActivity(game, lastActivity));
+            } else {
+                live.add(new GameActivity(game, lastActivity));
+                entries[0] += game.getTotalEntryCount();
+            }
+        });
+
+        int overCapacity = 0;
+        if (live.size() > maxGames || entries[0] > maxEntries) {
+            live.sort(EVICTION_ORDER);
+            int games = live.size();
+            for (GameActivity activity : live) {
+                if (games <= maxGames && entries[0] <= maxEntries) {
+                    break;
+                }
+                expired.add(activity);
+                games--;
+                entries[0] -= activity.getGame().getTotalEntryCount();
+                overCapacity++;
+            }
+        }
+
+        int evicted = 0;
+        for (GameActivity activity : expired) {
+            if (gameRepository.removeIfIdle(activity.getGame().getId(), activity.getLastActivity())) {
+                evicted++;
+            }
+        }
+        evictions.addAndGet(evicted);
+        if (evicted > 0) {
+            log.info("Evicted {} games, {} of them to stay within capacity", evicted, overCapacity);
+        }
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class GameActivity {
+        private final GameSnapshot game;
+        private final long lastActivity;
+    }
+}
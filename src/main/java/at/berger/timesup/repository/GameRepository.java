@@ -2,79 +2,68 @@ package at.berger.timesup.repository;
 
 import at.berger.timesup.entity.GameEntity;
 import at.berger.timesup.entity.GameState;
-import at.berger.timesup.model.message.GameException;
-import at.berger.timesup.model.message.GameMessage;
-import at.berger.timesup.model.message.Severity;
-import org.springframework.stereotype.Service;
+import at.berger.timesup.model.GameSnapshot;
+import at.berger.timesup.repository.journal.GameRecord;
 
-import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
-@Service
-public class GameRepository {
+public interface GameRepository {
 
-    private final ScheduledExecutorService executorService = Executors.newScheduledThreadPool(10);
+    String nextId();
 
-    private final Map<String, GameEntity> repository = new ConcurrentHashMap<>();
+    GameEntity get(String id);
 
-    public GameEntity get(String id) {
-        Objects.requireNonNull(id);
-        GameEntity game = repository.get(id);
-        if (game == null) {
-            throw new GameException(Severity.FATAL, new GameMessage("Cannot find game with ID " + id));
-        }
-        return game;
-    }
+    GameSnapshot getSnapshot(String id);
 
-    public void create(GameEntity entity)  {
-        Objects.requireNonNull(entity);
-        Objects.requireNonNull(entity.getId());
-        if (repository.containsKey(entity.getId())) {
-            throw new GameException(new GameMessage("Game with ID " + entity.getId() + " already exists"));
-        }
-        repository.put(entity.getId(), entity);
-    }
+    GameSnapshot getSnapshot(String id, long version);
+
+    void create(GameEntity entity);
+
+    List<GameSnapshot> recover();
+
+    <T> T update(String id, Function<GameEntity, T> updateOperation, Predicate<T> changed);
 
-    public <T> T update(String id, Function<GameEntity, T> updateOperation) {
-        Objects.requireNonNull(id);
-        Objects.requireNonNull(updateOperation);
-        GameEntity gameState = get(id);
-        T result = updateOperation.apply(gameState);
-        repository.put(id, gameState);
-        return result;
+    default <T> T update(String id, Function<GameEntity, T> updateOperation) {
+        return update(id, updateOperation, result -> true);
     }
 
-    public void update(String id, Consumer<GameEntity> updateOperation) {
+    default void modify(String id, Consumer<GameEntity> updateOperation) {
         update(id, (game) -> {
             updateOperation.accept(game);
             return null;
         });
     }
 
-    public void updateIn(String id, int seconds, Consumer<GameEntity> updateOperation) {
-        executorService.schedule(() -> update(id, updateOperation), seconds, TimeUnit.MILLISECONDS);
-    }
+    void updateIn(String id, int milliseconds, Function<GameEntity, Boolean> updateOperation);
 
-    public List<GameEntity> getSetupAndPlay() {
-        return repository.values().stream()
-                .filter(g -> Arrays.asList(GameState.SETUP, GameState.PLAY).contains(g.getState()))
-                .collect(Collectors.toList());
-    }
+    void cancelUpdate(String id);
 
-    public void remove(String gameId) {
-        repository.remove(gameId);
-    }
+    void forEach(Consumer<GameEntity> reader);
 
-    public void removeIn(String id, int seconds) {
-        executorService.schedule(() -> remove(id), seconds, TimeUnit.MILLISECONDS);
-    }
-}
\ No newline at end of file
+    void forEachIdle(BiConsumer<GameSnapshot, GameRecord> reader);
+
+    List<GameSnapshot> getSetupAndPlay(String namePrefix, int offset, int limit);
+
+    List<GameSnapshot> getByState(String namePrefix, int offset, int limit, GameState... states);
+
+    void remove(String gameId);
+
+    boolean removeIfIdle(String gameId, long expectedLastActivity);
+
+    void forEachActivity(BiConsumer<GameSnapshot, Long> reader);
+
+    int getGameCount(GameState state);
+
+    int getPlayerCount();
+
+    int getPendingTimers();
+
+    long getTimerFiringLag(TimeUnit unit);
+
+    long getMaxTimerFiringLag(TimeUnit unit);
+}
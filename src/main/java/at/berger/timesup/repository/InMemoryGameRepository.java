@@ -0,0 +1,500 @@
+package at.berger.timesup.repository;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.entity.GameState;
+import at.berger.timesup.executor.GameExecutors;
+import at.berger.timesup.model.GameSnapshot;
+import at.berger.timesup.model.message.GameException;
+import at.berger.timesup.model.message.GameMessage;
+import at.berger.timesup.model.message.Severity;
+import at.berger.timesup.repository.journal.GameJournal;
+import at.berger.timesup.repository.journal.GameRecord;
+import at.berger.timesup.repository.journal.GameRoundDelta;
+import at.berger.timesup.timer.HashedWheelTimer;
+import at.berger.timesup.timer.Timeout;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class InMemoryGameRepository implements GameRepository {
+
+    private static final int SNAPSHOT_HISTORY = 8;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final GameJournal journal;
+
+    private final ExecutorService executorService;
+
+    private final HashedWheelTimer timer;
+
+    private final OffHeapGameStore idleGames;
+
+    private final long idleTime;
+
+    private final long journalTimeout;
+
+    private final Map<String, GameEntity> repository = new ConcurrentHashMap<>();
+
+    private final Map<String, GameSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    private final Map<String, List<GameSnapshot>> snapshotHistory = new ConcurrentHashMap<>();
+
+    private final Map<GameState, NavigableMap<String, String>> stateIndex = createStateIndex();
+
+    private final Map<String, Long> lastActivity = new ConcurrentHashMap<>();
+
+    private final Map<String, Timeout> updateTimers = new ConcurrentHashMap<>();
+
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    public InMemoryGameRepository(ApplicationEventPublisher eventPublisher, GameJournal journal, GameExecutors gameExecutors,
+                                  OffHeapGameStore idleGames, @Value("${timesup.offheap.idle-time:600000}") long idleTime,
+                                  @Value("${timesup.journal.write-timeout:5000}") long journalTimeout) {
+        this.eventPublisher = eventPublisher;
+        this.journal = journal;
+        this.executorService = gameExecutors.newExecutor("game-timer-callback", 10);
+        this.timer = new HashedWheelTimer("game-timer", 100, TimeUnit.MILLISECONDS, 512, executorService);
+        this.idleGames = idleGames;
+        this.idleTime = idleTime;
+        this.journalTimeout = journalTimeout;
+    }
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Override
+    public GameEntity get(String id) {
+        Objects.requireNonNull(id);
+        GameEntity game = repository.get(id);
+        if (game == null) {
+            game = repository.computeIfAbsent(id, idleGames::load);
+        }
+        if (game == null) {
+            throw new GameException(Severity.FATAL, new GameMessage("Cannot find game with ID " + id));
+        }
+        return game;
+    }
+
+    @Override
+    public GameSnapshot getSnapshot(String id) {
+        Objects.requireNonNull(id);
+        GameSnapshot snapshot = snapshots.get(id);
+        if (snapshot == null) {
+            throw new GameException(Severity.FATAL, new GameMessage("Cannot find game with ID " + id));
+        }
+        return snapshot;
+    }
+
+    @Override
+    public GameSnapshot getSnapshot(String id, long version) {
+        Objects.requireNonNull(id);
+        GameSnapshot snapshot = snapshots.get(id);
+        if (snapshot != null && snapshot.getVersion() == version) {
+            return snapshot;
+        }
+        List<GameSnapshot> history = snapshotHistory.get(id);
+        if (history != null) {
+            for (GameSnapshot previous : history) {
+                if (previous.getVersion() == version) {
+                    return previous;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void create(GameEntity entity)  {
+        Objects.requireNonNull(entity);
+        Objects.requireNonNull(entity.getId());
+        if (repository.containsKey(entity.getId()) || snapshots.containsKey(entity.getId())) {
+            throw new GameException(new GameMessage("Game with ID " + entity.getId() + " already exists"));
+        }
+        CompletableFuture<Long> written;
+        ReentrantLock lock = lockFor(entity.getId());
+        lock.lock();
+        try {
+            snapshots.put(entity.getId(), GameSnapshot.of(entity));
+            repository.put(entity.getId(), entity);
+            lastActivity.put(entity.getId(), System.currentTimeMillis());
+            index(entity);
+            written = journal.store(entity);
+        } finally {
+            unlock(entity.getId(), lock);
+        }
+        eventPublisher.publishEvent(new GameChangedEvent(entity.getId(), entity.getVersion(), false));
+        awaitJournal(entity.getId(), written);
+    }
+
+    @Override
+    public List<GameSnapshot> recover() {
+        return journal.getRecoveredGames().stream()
+                .map(game -> {
+                    ReentrantLock lock = lockFor(game.getId());
+                    lock.lock();
+                    try {
+                        GameSnapshot snapshot = GameSnapshot.of(game);
+                        snapshots.put(game.getId(), snapshot);
+                        repository.put(game.getId(), game);
+                        lastActivity.put(game.getId(), System.currentTimeMillis());
+                        index(game);
+                        return snapshot;
+                    } finally {
+                        unlock(game.getId(), lock);
+                    }
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public <T> T update(String id, Function<GameEntity, T> updateOperation, Predicate<T> changed) {
+        Objects.requireNonNull(id);
+        Objects.requireNonNull(updateOperation);
+        Objects.requireNonNull(changed);
+        while (true) {
+            GameEntity gameState = get(id);
+            T result;
+            CompletableFuture<Long> written = null;
+            ReentrantLock lock = lockFor(id);
+            lock.lock();
+            try {
+                if (repository.get(id) != gameState) {
+                    continue;
+                }
+                GameState previousState = gameState.getState();
+                result = updateOperation.apply(gameState);
+                if (!changed.test(result)) {
+                    return result;
+                }
+                gameState.setVersion(gameState.getVersion() + 1);
+                if (repository.get(id) == gameState) {
+                    if (previousState != gameState.getState()) {
+                        stateIndex.get(previousState).remove(indexKey(gameState.getName(), id));
+                        index(gameState);
+                    }
+                    lastActivity.put(id, System.currentTimeMillis());
+                    GameSnapshot snapshot = GameSnapshot.of(gameState);
+                    GameSnapshot previous = snapshots.put(id, snapshot);
+                    remember(id, previous);
+                    written = GameRoundDelta.isRoundChange(previous, snapshot)
+                            ? journal.storeRound(id, gameState.getVersion(), GameRoundDelta.of(gameState))
+                            : journal.store(gameState);
+                    eventPublisher.publishEvent(new GameChangedEvent(id, gameState.getVersion(), false));
+                }
+            } finally {
+                unlock(id, lock);
+            }
+            if (written != null) {
+                awaitJournal(id, written);
+            }
+            return result;
+        }
+    }
+
+    private void awaitJournal(String id, CompletableFuture<Long> written) {
+        try {
+            written.get(journalTimeout, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            log.error("Cannot journal game {}", id, e.getCause());
+            throw new GameException(Severity.ERROR, new GameMessage("Cannot save game " + id));
+        } catch (TimeoutException e) {
+            log.error("Journaling game {} took longer than {} ms", id, journalTimeout);
+            throw new GameException(Severity.ERROR, new GameMessage("Cannot save game " + id));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GameException(Severity.ERROR, new GameMessage("Cannot save game " + id));
+        }
+    }
+
+    @Override
+    public void updateIn(String id, int milliseconds, Function<GameEntity, Boolean> updateOperation) {
+        Timeout timeout = timer.newTimeout(t -> {
+            updateTimers.remove(id, t);
+            update(id, updateOperation, Boolean::booleanValue);
+        }, milliseconds, TimeUnit.MILLISECONDS);
+        cancel(updateTimers.put(id, timeout));
+    }
+
+    @Override
+    public void cancelUpdate(String id) {
+        cancel(updateTimers.remove(id));
+    }
+
+    @Override
+    public void forEach(Consumer<GameEntity> reader) {
+        for (GameEntity game : repository.values()) {
+            ReentrantLock lock = lockFor(game.getId());
+            lock.lock();
+            try {
+                if (repository.get(game.getId()) == game) {
+                    reader.accept(game);
+                }
+            } finally {
+                unlock(game.getId(), lock);
+            }
+        }
+    }
+
+    @Override
+    public void forEachIdle(BiConsumer<GameSnapshot, GameRecord> reader) {
+        idleGames.forEach(record -> {
+            GameSnapshot snapshot = snapshots.get(record.getGameId());
+            if (snapshot != null) {
+                reader.accept(snapshot, record);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${timesup.offheap.sweep-interval:60000}")
+    public void demoteIdleGames() {
+        long idleSince = System.currentTimeMillis() - idleTime;
+        int demoted = 0;
+        for (Map.Entry<String, Long> activity : lastActivity.entrySet()) {
+            if (activity.getValue() < idleSince) {
+                GameEntity game = repository.get(activity.getKey());
+                if (game != null && demote(game, idleSince)) {
+                    demoted++;
+                }
+            }
+        }
+        if (demoted > 0) {
+            log.debug("Moved {} idle games off heap ({} bytes in {} games)", demoted, idleGames.getSize(), idleGames.getGameCount());
+        }
+    }
+
+    @Override
+    public List<GameSnapshot> getSetupAndPlay(String namePrefix, int offset, int limit) {
+        return getByState(namePrefix, offset, limit, GameState.SETUP, GameState.PLAY);
+    }
+
+    @Override
+    public List<GameSnapshot> getByState(String namePrefix, int offset, int limit, GameState... states) {
+        String prefix = namePrefix == null ? "" : namePrefix.trim().toLowerCase();
+        List<Iterator<Map.Entry<String, String>>> iterators = new ArrayList<>(states.length);
+        List<Map.Entry<String, String>> heads = new ArrayList<>(states.length);
+        for (GameState state : states) {
+            NavigableMap<String, String> index = stateIndex.get(state);
+            if (!prefix.isEmpty()) {
+                index = index.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+            }
+            Iterator<Map.Entry<String, String>> iterator = index.entrySet().iterator();
+            iterators.add(iterator);
+            heads.add(iterator.hasNext() ? iterator.next() : null);
+        }
+
+        List<GameSnapshot> result = new ArrayList<>(Math.min(limit, 64));
+        int skipped = 0;
+        while (result.size() < limit) {
+            int next = -1;
+            for (int i = 0; i < heads.size(); i++) {
+                Map.Entry<String, String> head = heads.get(i);
+                if (head != null && (next < 0 || head.getKey().compareTo(heads.get(next).getKey()) < 0)) {
+                    next = i;
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            String gameId = heads.get(next).getValue();
+            Iterator<Map.Entry<String, String>> iterator = iterators.get(next);
+            heads.set(next, iterator.hasNext() ? iterator.next() : null);
+            GameSnapshot snapshot = snapshots.get(gameId);
+            if (snapshot == null) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                result.add(snapshot);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void remove(String gameId) {
+        remove(gameId, null);
+    }
+
+    @Override
+    public boolean removeIfIdle(String gameId, long expectedLastActivity) {
+        return remove(gameId, expectedLastActivity);
+    }
+
+    private boolean remove(String gameId, Long expectedLastActivity) {
+        ReentrantLock lock = lockFor(gameId);
+        lock.lock();
+        try {
+            if (expectedLastActivity != null && !expectedLastActivity.equals(lastActivity.get(gameId))) {
+                return false;
+            }
+            cancel(updateTimers.remove(gameId));
+            boolean[] removedIdle = new boolean[1];
+            GameEntity game = repository.compute(gameId, (id, current) -> {
+                removedIdle[0] = current == null && idleGames.remove(id);
+                return current;
+            });
+            if (removedIdle[0]) {
+                GameSnapshot snapshot = snapshots.remove(gameId);
+                snapshotHistory.remove(gameId);
+                lastActivity.remove(gameId);
+                if (snapshot != null) {
+                    stateIndex.get(snapshot.getState()).remove(indexKey(snapshot.getName(), gameId));
+                    journal.remove(gameId, snapshot.getVersion() + 1);
+                }
+                eventPublisher.publishEvent(new GameChangedEvent(gameId, snapshot == null ? 0 : snapshot.getVersion() + 1, true));
+                return true;
+            } else if (game != null && repository.remove(gameId, game)) {
+                snapshots.remove(gameId);
+                snapshotHistory.remove(gameId);
+                lastActivity.remove(gameId);
+                stateIndex.get(game.getState()).remove(indexKey(game.getName(), gameId));
+                journal.remove(gameId, game.getVersion() + 1);
+                eventPublisher.publishEvent(new GameChangedEvent(gameId, game.getVersion() + 1, true));
+                return true;
+            }
+            return false;
+        } finally {
+            unlock(gameId, lock);
+        }
+    }
+
+    @Override
+    public void forEachActivity(BiConsumer<GameSnapshot, Long> reader) {
+        for (Map.Entry<String, Long> activity : lastActivity.entrySet()) {
+            GameSnapshot snapshot = snapshots.get(activity.getKey());
+            if (snapshot != null) {
+                reader.accept(snapshot, activity.getValue());
+            }
+        }
+    }
+
+    @Override
+    public int getGameCount(GameState state) {
+        return stateIndex.get(state).size();
+    }
+
+    @Override
+    public int getPlayerCount() {
+        return snapshots.values().stream()
+                .filter(game -> !GameState.END.equals(game.getState()))
+                .mapToInt(GameSnapshot::getPlayerCount)
+                .sum();
+    }
+
+    @Override
+    public int getPendingTimers() {
+        return timer.getPendingTimeouts();
+    }
+
+    @Override
+    public long getTimerFiringLag(TimeUnit unit) {
+        return timer.getLastFiringLag(unit);
+    }
+
+    @Override
+    public long getMaxTimerFiringLag(TimeUnit unit) {
+        return timer.getMaxFiringLag(unit);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.stop();
+        executorService.shutdown();
+    }
+
+    private boolean demote(GameEntity game, long idleSince) {
+        String id = game.getId();
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            if (repository.get(id) != game || lastActivity.getOrDefault(id, Long.MAX_VALUE) >= idleSince) {
+                return false;
+            }
+            idleGames.store(game);
+            repository.remove(id, game);
+            snapshotHistory.remove(id);
+            return true;
+        } finally {
+            unlock(id, lock);
+        }
+    }
+
+    private void remember(String id, GameSnapshot snapshot) {
+        if (snapshot == null) {
+            return;
+        }
+        snapshotHistory.compute(id, (key, history) -> {
+            List<GameSnapshot> retained = new ArrayList<>(SNAPSHOT_HISTORY);
+            if (history != null) {
+                retained.addAll(history.subList(Math.max(0, history.size() - SNAPSHOT_HISTORY + 1), history.size()));
+            }
+            retained.add(snapshot);
+            return retained;
+        });
+    }
+
+    private ReentrantLock lockFor(String id) {
+        return locks.computeIfAbsent(id, key -> new ReentrantLock());
+    }
+
+    private void unlock(String id, ReentrantLock lock) {
+        boolean released = lock.getHoldCount() == 1;
+        lock.unlock();
+        if (released && !snapshots.containsKey(id)) {
+            locks.remove(id, lock);
+        }
+    }
+
+    private void index(GameEntity game) {
+        stateIndex.get(game.getState()).put(indexKey(game.getName(), game.getId()), game.getId());
+    }
+
+    private static String indexKey(String name, String id) {
+        return name.toLowerCase() + '\u0000' + id;
+    }
+
+    private static Map<GameState, NavigableMap<String, String>> createStateIndex() {
+        Map<GameState, NavigableMap<String, String>> index = new EnumMap<>(GameState.class);
+        for (GameState state : GameState.values()) {
+            index.put(state, new ConcurrentSkipListMap<>());
+        }
+        return index;
+    }
+
+    private void cancel(Timeout timeout) {
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+}
\ No newline at end of file
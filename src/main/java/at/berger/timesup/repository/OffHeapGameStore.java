@@ -0,0 +1,68 @@
+package at.berger.timesup.repository;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.repository.codec.GameCodec;
+import at.berger.timesup.repository.journal.GameRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+@Component
+@RequiredArgsConstructor
+public class OffHeapGameStore {
+
+    private final GameCodec codec;
+
+    private final Map<String, GameRecord> games = new ConcurrentHashMap<>();
+
+    private final AtomicLong size = new AtomicLong();
+
+    public void store(GameEntity game) {
+        byte[] bytes = codec.encode(game);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        GameRecord previous = games.put(game.getId(), new GameRecord(game.getId(), game.getVersion(), buffer));
+        size.addAndGet(bytes.length - (previous == null ? 0 : previous.getPayload().capacity()));
+    }
+
+    public GameEntity load(String id) {
+        GameRecord record = games.get(id);
+        if (record == null) {
+            return null;
+        }
+        GameEntity game = codec.decode(record.getPayload().duplicate());
+        if (games.remove(id, record)) {
+            size.addAndGet(-record.getPayload().capacity());
+        }
+        return game;
+    }
+
+    public boolean remove(String id) {
+        GameRecord record = games.remove(id);
+        if (record == null) {
+            return false;
+        }
+        size.addAndGet(-record.getPayload().capacity());
+        return true;
+    }
+
+    public void forEach(Consumer<GameRecord> reader) {
+        for (GameRecord record : games.values()) {
+            reader.accept(new GameRecord(record.getGameId(), record.getVersion(), record.getPayload().duplicate()));
+        }
+    }
+
+    public int getGameCount() {
+        return games.size();
+    }
+
+    public long getSize() {
+        return size.get();
+    }
+}
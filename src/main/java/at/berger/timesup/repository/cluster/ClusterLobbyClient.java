@@ -0,0 +1,84 @@
+package at.berger.timesup.repository.cluster;
+
+import at.berger.timesup.entity.GameState;
+import at.berger.timesup.executor.GameExecutors;
+import at.berger.timesup.model.GameSnapshot;
+import at.berger.timesup.model.LobbyGame;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@ConditionalOnProperty("timesup.cluster.nodes")
+public class ClusterLobbyClient {
+
+    private final RestTemplate restTemplate;
+
+    private final ExecutorService executorService;
+
+    public ClusterLobbyClient(RestTemplateBuilder restTemplateBuilder, GameExecutors gameExecutors,
+                              @Value("${timesup.cluster.nodes}") List<String> nodes,
+                              @Value("${timesup.cluster.lobby-timeout:1000}") long timeout) {
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofMillis(timeout))
+                .setReadTimeout(Duration.ofMillis(timeout))
+                .build();
+        this.executorService = gameExecutors.newExecutor("cluster-lobby", Math.max(nodes.size() - 1, 1));
+    }
+
+    public List<List<GameSnapshot>> getByState(List<String> nodes, String namePrefix, int limit, GameState... states) {
+        List<CompletableFuture<List<GameSnapshot>>> pages = nodes.stream()
+                .map(node -> CompletableFuture.supplyAsync(() -> fetch(node, namePrefix, limit, states), executorService))
+                .collect(Collectors.toList());
+        List<List<GameSnapshot>> result = new ArrayList<>(pages.size());
+        for (CompletableFuture<List<GameSnapshot>> page : pages) {
+            result.add(page.join());
+        }
+        return result;
+    }
+
+    private List<GameSnapshot> fetch(String node, String namePrefix, int limit, GameState... states) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(node)
+                .path("/cluster/games")
+                .queryParam("search", namePrefix == null ? "" : namePrefix)
+                .queryParam("limit", limit)
+                .queryParam("state", Arrays.stream(states).map(GameState::name).toArray())
+                .build()
+                .encode()
+                .toUri();
+        try {
+            LobbyGame[] games = restTemplate.getForObject(uri, LobbyGame[].class);
+            if (games == null) {
+                return Collections.emptyList();
+            }
+            return Arrays.stream(games)
+                    .map(LobbyGame::toSnapshot)
+                    .collect(Collectors.toList());
+        } catch (RestClientException e) {
+            log.warn("Cannot read lobby of {}: {}", node, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdown();
+    }
+}
@@ -0,0 +1,43 @@
+package at.berger.timesup.repository.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+public class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Hash ring needs at least one node");
+        }
+        for (String node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    public String getOwner(String key) {
+        Map.Entry<Long, String> owner = ring.ceilingEntry(hash(key));
+        return owner == null ? ring.firstEntry().getValue() : owner.getValue();
+    }
+
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                hash = (hash << 8) | (digest[i] & 0xff);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
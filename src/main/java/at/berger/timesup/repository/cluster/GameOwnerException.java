@@ -0,0 +1,17 @@
+package at.berger.timesup.repository.cluster;
+
+import lombok.Getter;
+
+@Getter
+public class GameOwnerException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String gameId;
+    private final String owner;
+
+    public GameOwnerException(String gameId, String owner) {
+        super("Game " + gameId + " is owned by " + owner);
+        this.gameId = gameId;
+        this.owner = owner;
+    }
+}
@@ -0,0 +1,217 @@
+package at.berger.timesup.repository.cluster;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.entity.GameState;
+import at.berger.timesup.model.GameSnapshot;
+import at.berger.timesup.repository.GameRepository;
+import at.berger.timesup.repository.InMemoryGameRepository;
+import at.berger.timesup.repository.journal.GameRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Primary
+@Service
+@ConditionalOnProperty("timesup.cluster.nodes")
+public class ShardedGameRepository implements GameRepository {
+
+    private static final int VIRTUAL_NODES = 128;
+
+    private static final Comparator<GameSnapshot> LOBBY_ORDER = Comparator
+            .comparing((GameSnapshot game) -> game.getName().toLowerCase())
+            .thenComparing(GameSnapshot::getId);
+
+    private final InMemoryGameRepository localRepository;
+
+    private final ConsistentHashRing ring;
+
+    private final String self;
+
+    private final List<String> remoteNodes;
+
+    private final ClusterLobbyClient lobbyClient;
+
+    public ShardedGameRepository(InMemoryGameRepository localRepository, ClusterLobbyClient lobbyClient,
+                                 @Value("${timesup.cluster.nodes}") List<String> nodes,
+                                 @Value("${timesup.cluster.self}") String self) {
+        if (!nodes.contains(self)) {
+            throw new IllegalStateException("Cluster nodes " + nodes + " do not contain this node " + self);
+        }
+        this.localRepository = localRepository;
+        this.ring = new ConsistentHashRing(nodes, VIRTUAL_NODES);
+        this.self = self;
+        this.remoteNodes = nodes.stream()
+                .filter(node -> !node.equals(self))
+                .collect(Collectors.toList());
+        this.lobbyClient = lobbyClient;
+        log.info("Node {} of cluster {}", self, nodes);
+    }
+
+    @Override
+    public String nextId() {
+        String id;
+        do {
+            id = localRepository.nextId();
+        } while (!isLocal(id));
+        return id;
+    }
+
+    @Override
+    public GameEntity get(String id) {
+        requireLocal(id);
+        return localRepository.get(id);
+    }
+
+    @Override
+    public GameSnapshot getSnapshot(String id) {
+        requireLocal(id);
+        return localRepository.getSnapshot(id);
+    }
+
+    @Override
+    public GameSnapshot getSnapshot(String id, long version) {
+        requireLocal(id);
+        return localRepository.getSnapshot(id, version);
+    }
+
+    @Override
+    public void create(GameEntity entity) {
+        requireLocal(entity.getId());
+        localRepository.create(entity);
+    }
+
+    @Override
+    public List<GameSnapshot> recover() {
+        List<GameSnapshot> games = new ArrayList<>();
+        for (GameSnapshot game : localRepository.recover()) {
+            if (isLocal(game.getId())) {
+                games.add(game);
+            } else {
+                log.warn("Dropping recovered game {}, it belongs to {} after a topology change",
+                        game.getId(), ring.getOwner(game.getId()));
+                localRepository.remove(game.getId());
+            }
+        }
+        return games;
+    }
+
+    @Override
+    public <T> T update(String id, Function<GameEntity, T> updateOperation, Predicate<T> changed) {
+        requireLocal(id);
+        return localRepository.update(id, updateOperation, changed);
+    }
+
+    @Override
+    public void updateIn(String id, int milliseconds, Function<GameEntity, Boolean> updateOperation) {
+        requireLocal(id);
+        localRepository.updateIn(id, milliseconds, updateOperation);
+    }
+
+    @Override
+    public void cancelUpdate(String id) {
+        localRepository.cancelUpdate(id);
+    }
+
+    @Override
+    public void forEach(Consumer<GameEntity> reader) {
+        localRepository.forEach(game -> {
+            if (isLocal(game.getId())) {
+                reader.accept(game);
+            }
+        });
+    }
+
+    @Override
+    public void forEachIdle(BiConsumer<GameSnapshot, GameRecord> reader) {
+        localRepository.forEachIdle(reader);
+    }
+
+    @Override
+    public List<GameSnapshot> getSetupAndPlay(String namePrefix, int offset, int limit) {
+        return getByState(namePrefix, offset, limit, GameState.SETUP, GameState.PLAY);
+    }
+
+    @Override
+    public List<GameSnapshot> getByState(String namePrefix, int offset, int limit, GameState... states) {
+        int pageEnd = offset + limit;
+        List<GameSnapshot> games = new ArrayList<>(localRepository.getByState(namePrefix, 0, pageEnd, states));
+        for (List<GameSnapshot> remoteGames : lobbyClient.getByState(remoteNodes, namePrefix, pageEnd, states)) {
+            games.addAll(remoteGames);
+        }
+        games.sort(LOBBY_ORDER);
+        return offset >= games.size()
+                ? Collections.emptyList()
+                : new ArrayList<>(games.subList(offset, Math.min(pageEnd, games.size())));
+    }
+
+    @Override
+    public void remove(String gameId) {
+        requireLocal(gameId);
+        localRepository.remove(gameId);
+    }
+
+    @Override
+    public boolean removeIfIdle(String gameId, long expectedLastActivity) {
+        requireLocal(gameId);
+        return localRepository.removeIfIdle(gameId, expectedLastActivity);
+    }
+
+    @Override
+    public void forEachActivity(BiConsumer<GameSnapshot, Long> reader) {
+        localRepository.forEachActivity(reader);
+    }
+
+    @Override
+    public int getGameCount(GameState state) {
+        return localRepository.getGameCount(state);
+    }
+
+    @Override
+    public int getPlayerCount() {
+        return localRepository.getPlayerCount();
+    }
+
+    @Override
+    public int getPendingTimers() {
+        return localRepository.getPendingTimers();
+    }
+
+    @Override
+    public long getTimerFiringLag(TimeUnit unit) {
+        return localRepository.getTimerFiringLag(unit);
+    }
+
+    @Override
+    public long getMaxTimerFiringLag(TimeUnit unit) {
+        return localRepository.getMaxTimerFiringLag(unit);
+    }
+
+    public String getOwner(String id) {
+        return ring.getOwner(id);
+    }
+
+    public boolean isLocal(String id) {
+        return self.equals(ring.getOwner(id));
+    }
+
+    private void requireLocal(String id) {
+        String owner = ring.getOwner(id);
+        if (!self.equals(owner)) {
+            throw new GameOwnerException(id, owner);
+        }
+    }
+}
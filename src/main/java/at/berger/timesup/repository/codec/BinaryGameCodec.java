@@ -0,0 +1,455 @@
+package at.berger.timesup.repository.codec;
+
+import at.berger.timesup.entity.EntryDictionary;
+import at.berger.timesup.entity.EntryPool;
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.entity.GamePhase;
+import at.berger.timesup.entity.GameRoundEntity;
+import at.berger.timesup.entity.GameRoundState;
+import at.berger.timesup.entity.GameState;
+import at.berger.timesup.entity.GameTeamEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+@Component
+public class BinaryGameCodec implements GameCodec {
+
+    private static final byte MAGIC = 'T';
+    private static final byte FORMAT_VERSION = 2;
+
+    private static final GameState[] GAME_STATES = GameState.values();
+    private static final GamePhase[] GAME_PHASES = GamePhase.values();
+    private static final GameRoundState[] ROUND_STATES = GameRoundState.values();
+
+    @Override
+    public byte[] encode(GameEntity game) {
+        Output body = new Output(256);
+        writeGame(body, game);
+        Output out = new Output(body.size + 16 * body.strings.size() + 8);
+        out.writeByte(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        out.writeVarInt(body.strings.size());
+        for (String string : body.strings.keySet()) {
+            out.writeUtf8(string);
+        }
+        out.write(body);
+        return out.toByteArray();
+    }
+
+    @Override
+    public GameEntity decode(ByteBuffer buffer) {
+        try {
+            if (buffer.get() != MAGIC) {
+                throw new IllegalStateException("Cannot decode game, unknown format");
+            }
+            byte formatVersion = buffer.get();
+            if (formatVersion < 1 || formatVersion > FORMAT_VERSION) {
+                throw new IllegalStateException("Cannot decode game, unsupported format version " + formatVersion);
+            }
+            String[] strings = new String[readVarInt(buffer)];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readUtf8(buffer);
+            }
+            return readGame(new Input(buffer, formatVersion, strings));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalStateException("Cannot decode game", e);
+        }
+    }
+
+    private void writeGame(Output out, GameEntity game) {
+        out.writeString(game.getId());
+        out.writeString(game.getName());
+        out.writeEnum(game.getState());
+        out.writeEnum(game.getPhase());
+        out.writeString(game.getDescription());
+        out.writeNullableInt(game.getEntriesPerPlayer());
+        out.writeNullableInt(game.getRoundTime());
+        out.writeByte(game.isAssignTeams() ? 1 : 0);
+        out.writeVarLong(game.getVersion());
+
+        List<String> entries = game.getEntryDictionary().asList();
+        out.writeVarInt(entries.size());
+        for (String entry : entries) {
+            out.writeString(entry);
+        }
+        out.writeBitSet(game.getAvailableEntryIds());
+
+        out.writeVarInt(game.getTeams().size());
+        for (GameTeamEntity team : game.getTeams()) {
+            writeTeam(out, team);
+        }
+
+        List<GameRoundEntity> rounds = game.getRounds();
+        Map<GameRoundEntity, Integer> roundIndexes = new IdentityHashMap<>();
+        out.writeVarInt(rounds.size());
+        for (GameRoundEntity round : rounds) {
+            roundIndexes.put(round, roundIndexes.size());
+            writeRound(out, round, round == game.getCurrentRound());
+        }
+        out.writeVarInt(roundIndex(roundIndexes, game.getCurrentRound()));
+        for (GameTeamEntity team : game.getTeams()) {
+            out.writeVarInt(roundIndex(roundIndexes, game.getLastRound(team.getName())));
+        }
+    }
+
+    private void writeTeam(Output out, GameTeamEntity team) {
+        out.writeString(team.getName());
+        out.writeVarInt(team.getScore());
+        List<String> players = team.getPlayers();
+        out.writeVarInt(players.size());
+        for (String player : players) {
+            out.writeString(player);
+        }
+        SortedMap<String, Integer> playerScores = team.getPlayerScores();
+        out.writeVarInt(playerScores.size());
+        for (Map.Entry<String, Integer> playerScore : playerScores.entrySet()) {
+            out.writeString(playerScore.getKey());
+            out.writeVarInt(playerScore.getValue());
+        }
+        Set<String> roundPlayers = team.getRoundPlayers();
+        out.writeVarInt(roundPlayers.size());
+        for (String player : roundPlayers) {
+            out.writeString(player);
+        }
+    }
+
+    private void writeRound(Output out, GameRoundEntity round, boolean current) {
+        out.writeString(round.getId());
+        out.writeEnum(round.getState());
+        out.writeString(round.getTeamName());
+        out.writeString(round.getPlayerName());
+        out.writeString(round.getCurrentEntry());
+        out.writeNullableInt(round.getRoundTime());
+        out.writeInstant(round.getStartTimestamp());
+        out.writeInstant(round.getInProgressTimestamp());
+        int[] availableEntries = current ? round.getAvailableEntryIds() : new int[0];
+        out.writeVarInt(availableEntries.length);
+        for (int entry : availableEntries) {
+            out.writeVarInt(entry);
+        }
+        out.writeBitSet(round.getCorrectEntryIds());
+        out.writeVarLong(round.getCommandSequence());
+        Set<String> commandKeys = round.getCommandKeys();
+        out.writeVarInt(commandKeys.size());
+        for (String key : commandKeys) {
+            out.writeString(key);
+        }
+    }
+
+    private GameEntity readGame(Input in) {
+        String id = in.readString();
+        String name = in.readString();
+        GameState state = in.readEnum(GAME_STATES);
+        GamePhase phase = in.readEnum(GAME_PHASES);
+        String description = in.readString();
+        Integer entriesPerPlayer = in.readNullableInt();
+        Integer roundTime = in.readNullableInt();
+        boolean assignTeams = in.buffer.get() != 0;
+        long version = readVarLong(in.buffer);
+
+        EntryDictionary entries = new EntryDictionary();
+        int entryCount = readVarInt(in.buffer);
+        for (int i = 0; i < entryCount; i++) {
+            entries.intern(in.readString());
+        }
+        BitSet availableEntries = in.readBitSet();
+
+        NavigableMap<String, GameTeamEntity> teams = new TreeMap<>();
+        Map<String, String> playerTeams = new HashMap<>();
+        int teamCount = readVarInt(in.buffer);
+        for (int i = 0; i < teamCount; i++) {
+            GameTeamEntity team = readTeam(in);
+            teams.put(team.getName(), team);
+            for (String player : team.getPlayers()) {
+                playerTeams.put(player, team.getName());
+            }
+        }
+
+        Random random = new Random();
+        int roundCount = readVarInt(in.buffer);
+        List<GameRoundEntity> rounds = new ArrayList<>(roundCount);
+        for (int i = 0; i < roundCount; i++) {
+            rounds.add(readRound(in, entries, random));
+        }
+        GameRoundEntity currentRound = round(rounds, readVarInt(in.buffer));
+        for (GameRoundEntity round : rounds) {
+            if (round != currentRound) {
+                round.releaseEntries();
+            }
+        }
+        Map<String, GameRoundEntity> lastRounds = new HashMap<>();
+        for (String teamName : teams.keySet()) {
+            GameRoundEntity lastRound = round(rounds, readVarInt(in.buffer));
+            if (lastRound != null) {
+                lastRounds.put(teamName, lastRound);
+            }
+        }
+        return new GameEntity(id, name, state, phase, description, entriesPerPlayer, roundTime, assignTeams, version,
+                rounds, currentRound, lastRounds, teams, playerTeams, entries, availableEntries, random);
+    }
+
+    private GameTeamEntity readTeam(Input in) {
+        String name = in.readString();
+        int score = readVarInt(in.buffer);
+        int playerCount = readVarInt(in.buffer);
+        List<String> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            players.add(in.readString());
+        }
+        SortedMap<String, Integer> playerScores = new TreeMap<>();
+        int playerScoreCount = readVarInt(in.buffer);
+        for (int i = 0; i < playerScoreCount; i++) {
+            playerScores.put(in.readString(), readVarInt(in.buffer));
+        }
+        int roundPlayerCount = readVarInt(in.buffer);
+        Set<String> roundPlayers = new HashSet<>();
+        for (int i = 0; i < roundPlayerCount; i++) {
+            roundPlayers.add(in.readString());
+        }
+        return new GameTeamEntity(name, players, new HashSet<>(players), score, playerScores, roundPlayers);
+    }
+
+    private GameRoundEntity readRound(Input in, EntryDictionary dictionary, Random random) {
+        String id = in.readString();
+        GameRoundState state = in.readEnum(ROUND_STATES);
+        String teamName = in.readString();
+        String playerName = in.readString();
+        String currentEntry = in.readString();
+        Integer roundTime = in.readNullableInt();
+        Instant startTimestamp = in.readInstant();
+        Instant inProgressTimestamp = in.readInstant();
+        int[] availableEntries = new int[readVarInt(in.buffer)];
+        for (int i = 0; i < availableEntries.length; i++) {
+            availableEntries[i] = readVarInt(in.buffer);
+        }
+        EntryPool pool = availableEntries.length == 0 ? new EntryPool()
+                : new EntryPool(availableEntries, availableEntries.length, dictionary.size());
+        BitSet correctEntries = in.readBitSet();
+        long commandSequence = 0;
+        Set<String> commandKeys = new HashSet<>();
+        if (in.formatVersion >= 2) {
+            commandSequence = readVarLong(in.buffer);
+            int commandKeyCount = readVarInt(in.buffer);
+            for (int i = 0; i < commandKeyCount; i++) {
+                commandKeys.add(in.readString());
+            }
+        }
+        return new GameRoundEntity(id, state, teamName, playerName, currentEntry, roundTime, startTimestamp,
+                inProgressTimestamp, pool, correctEntries, commandSequence, commandKeys, dictionary, random);
+    }
+
+    private static int roundIndex(Map<GameRoundEntity, Integer> roundIndexes, GameRoundEntity round) {
+        Integer index = round == null ? null : roundIndexes.get(round);
+        return index == null ? 0 : index + 1;
+    }
+
+    private static GameRoundEntity round(List<GameRoundEntity> rounds, int index) {
+        return index == 0 ? null : rounds.get(index - 1);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        return (int) readVarLong(buffer);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Cannot decode game, malformed varint");
+    }
+
+    private static String readUtf8(ByteBuffer buffer) {
+        int length = readVarInt(buffer);
+        int position = buffer.position();
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+        } else {
+            ByteBuffer bytes = buffer.duplicate();
+            bytes.limit(position + length);
+            value = StandardCharsets.UTF_8.decode(bytes).toString();
+        }
+        buffer.position(position + length);
+        return value;
+    }
+
+    private static final class Input {
+
+        private final ByteBuffer buffer;
+
+        private final int formatVersion;
+
+        private final String[] strings;
+
+        private Input(ByteBuffer buffer, int formatVersion, String[] strings) {
+            this.buffer = buffer;
+            this.formatVersion = formatVersion;
+            this.strings = strings;
+        }
+
+        private String readString() {
+            int index = readVarInt(buffer);
+            return index == 0 ? null : strings[index - 1];
+        }
+
+        private <E extends Enum<E>> E readEnum(E[] values) {
+            int ordinal = readVarInt(buffer);
+            return ordinal == 0 ? null : values[ordinal - 1];
+        }
+
+        private Integer readNullableInt() {
+            long value = readVarLong(buffer);
+            if (value == 0) {
+                return null;
+            }
+            value--;
+            return (int) ((value >>> 1) ^ -(value & 1));
+        }
+
+        private Instant readInstant() {
+            if (buffer.get() == 0) {
+                return null;
+            }
+            long seconds = readVarLong(buffer);
+            return Instant.ofEpochSecond((seconds >>> 1) ^ -(seconds & 1), readVarInt(buffer));
+        }
+
+        private BitSet readBitSet() {
+            long[] words = new long[readVarInt(buffer)];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = buffer.getLong();
+            }
+            return BitSet.valueOf(words);
+        }
+    }
+
+    private static final class Output {
+
+        private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+        private byte[] bytes;
+
+        private int size;
+
+        private Output(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void writeString(String value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            Integer index = strings.get(value);
+            if (index == null) {
+                index = strings.size();
+                strings.put(value, index);
+            }
+            writeVarInt(index + 1);
+        }
+
+        private void writeUtf8(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(utf8.length);
+            ensureCapacity(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        private void writeEnum(Enum<?> value) {
+            writeVarInt(value == null ? 0 : value.ordinal() + 1);
+        }
+
+        private void writeNullableInt(Integer value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            long zigzag = ((long) value << 1) ^ ((long) value >> 63);
+            writeVarLong(zigzag + 1);
+        }
+
+        private void writeInstant(Instant value) {
+            if (value == null) {
+                writeByte(0);
+                return;
+            }
+            writeByte(1);
+            long seconds = value.getEpochSecond();
+            writeVarLong((seconds << 1) ^ (seconds >> 63));
+            writeVarInt(value.getNano());
+        }
+
+        private void writeBitSet(BitSet value) {
+            long[] words = value.toLongArray();
+            writeVarInt(words.length);
+            for (long word : words) {
+                writeLong(word);
+            }
+        }
+
+        private void write(Output other) {
+            ensureCapacity(other.size);
+            System.arraycopy(other.bytes, 0, bytes, size, other.size);
+            size += other.size;
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensureCapacity(int additional) {
+            if (size + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package at.berger.timesup.repository.codec;
+
+import at.berger.timesup.entity.GameEntity;
+
+import java.nio.ByteBuffer;
+
+public interface GameCodec {
+
+    byte[] encode(GameEntity game);
+
+    GameEntity decode(ByteBuffer buffer);
+}
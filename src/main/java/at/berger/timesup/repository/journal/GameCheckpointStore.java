@@ -0,0 +1,99 @@
+package at.berger.timesup.repository.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+@Slf4j
+@Component
+public class GameCheckpointStore {
+
+    private static final int MAGIC = 0x54555031;
+    private static final String CHECKPOINT_FILE = "checkpoint.bin";
+    private static final String TEMPORARY_FILE = "checkpoint.tmp";
+
+    private final Path directory;
+
+    public GameCheckpointStore(@Value("${timesup.journal.directory:data/journal}") String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    public long write(Collection<GameRecord> records) throws IOException {
+        int size = 2 * Integer.BYTES;
+        for (GameRecord record : records) {
+            size += Short.BYTES + record.getGameId().getBytes(StandardCharsets.UTF_8).length
+                    + Long.BYTES + Integer.BYTES + record.getPayload().remaining();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size + Integer.BYTES);
+        buffer.putInt(MAGIC);
+        buffer.putInt(records.size());
+        for (GameRecord record : records) {
+            byte[] id = record.getGameId().getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) id.length);
+            buffer.put(id);
+            buffer.putLong(record.getVersion());
+            buffer.putInt(record.getPayload().remaining());
+            buffer.put(record.getPayload().duplicate());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, size);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(TEMPORARY_FILE);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE);
+        return buffer.limit();
+    }
+
+    public Map<String, GameRecord> read() throws IOException {
+        Map<String, GameRecord> records = new HashMap<>();
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return records;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        int size = buffer.limit() - Integer.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, Math.max(size, 0));
+        if (size < 2 * Integer.BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(size) != (int) crc.getValue()) {
+            log.warn("Ignoring corrupt checkpoint {}", path);
+            return records;
+        }
+        buffer.position(Integer.BYTES);
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] id = new byte[buffer.getShort()];
+            buffer.get(id);
+            long version = buffer.getLong();
+            int length = buffer.getInt();
+            ByteBuffer payload = buffer.slice();
+            payload.limit(length);
+            buffer.position(buffer.position() + length);
+            String gameId = new String(id, StandardCharsets.UTF_8);
+            records.put(gameId, new GameRecord(gameId, version, payload));
+        }
+        return records;
+    }
+}
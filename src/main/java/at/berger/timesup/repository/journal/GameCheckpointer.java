@@ -0,0 +1,95 @@
+package at.berger.timesup.repository.journal;
+
+import at.berger.timesup.entity.GameState;
+import at.berger.timesup.repository.GameRepository;
+import at.berger.timesup.repository.codec.GameCodec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GameCheckpointer {
+
+    private final GameRepository gameRepository;
+
+    private final GameJournal journal;
+
+    private final GameCheckpointStore checkpointStore;
+
+    private final GameCodec codec;
+
+    private Map<String, GameRecord> encodedGames = new HashMap<>();
+
+    private volatile long lastDuration;
+
+    private volatile long lastSize;
+
+    private volatile int lastGameCount;
+
+    @Scheduled(fixedDelayString = "${timesup.checkpoint.interval:30000}")
+    public void checkpoint() throws IOException, InterruptedException {
+        if (!journal.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        long firstSegment;
+        try {
+            firstSegment = journal.roll().get();
+        } catch (ExecutionException e) {
+            log.error("Cannot roll game journal", e.getCause());
+            return;
+        }
+
+        Map<String, GameRecord> previousGames = encodedGames;
+        Map<String, GameRecord> currentGames = new HashMap<>();
+        gameRepository.forEach(game -> {
+            if (GameState.END.equals(game.getState())) {
+                return;
+            }
+            GameRecord previous = previousGames.get(game.getId());
+            if (previous != null && previous.getVersion() == game.getVersion()) {
+                currentGames.put(game.getId(), previous);
+            } else {
+                currentGames.put(game.getId(), new GameRecord(game.getId(), game.getVersion(), ByteBuffer.wrap(codec.encode(game))));
+            }
+        });
+        gameRepository.forEachIdle((snapshot, record) -> {
+            if (!GameState.END.equals(snapshot.getState())) {
+                currentGames.put(record.getGameId(), record);
+            }
+        });
+        List<GameRecord> records = new ArrayList<>(currentGames.values());
+        long size = checkpointStore.write(records);
+        journal.deleteSegmentsBefore(firstSegment);
+        encodedGames = currentGames;
+
+        lastDuration = System.nanoTime() - start;
+        lastSize = size;
+        lastGameCount = records.size();
+        log.debug("Checkpointed {} games ({} bytes) in {} ms", lastGameCount, lastSize, getLastDuration(TimeUnit.MILLISECONDS));
+    }
+
+    public long getLastDuration(TimeUnit unit) {
+        return unit.convert(lastDuration, TimeUnit.NANOSECONDS);
+    }
+
+    public long getLastSize() {
+        return lastSize;
+    }
+
+    public int getLastGameCount() {
+        return lastGameCount;
+    }
+}
@@ -0,0 +1,400 @@
+package at.berger.timesup.repository.journal;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.repository.codec.GameCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+@Slf4j
+@Component
+public class GameJournal {
+
+    private static final byte STORE = 1;
+    private static final byte REMOVE = 2;
+    private static final byte ROUND = 3;
+    private static final int FRAME_HEADER = 8;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final long RETRY_DELAY = 1000;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushInterval;
+    private final int maxRetries;
+    private final GameCodec codec;
+    private final GameCheckpointStore checkpointStore;
+
+    private final BlockingQueue<PendingRecord> pendingRecords = new LinkedBlockingQueue<>();
+
+    private final List<GameEntity> recoveredGames = new ArrayList<>();
+
+    private volatile boolean running;
+    private Thread writerThread;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentNumber;
+    private long restoreTime;
+
+    public GameJournal(@Value("${timesup.journal.enabled:true}") boolean enabled,
+                       @Value("${timesup.journal.directory:data/journal}") String directory,
+                       @Value("${timesup.journal.segment-size:67108864}") int segmentSize,
+                       @Value("${timesup.journal.flush-interval:10}") long flushInterval,
+                       @Value("${timesup.journal.max-retries:3}") int maxRetries,
+                       GameCodec codec,
+                       GameCheckpointStore checkpointStore) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+        this.flushInterval = flushInterval;
+        this.maxRetries = maxRetries;
+        this.codec = codec;
+        this.checkpointStore = checkpointStore;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        List<Path> segments = listSegments();
+        recoveredGames.addAll(replay(checkpointStore.read(), segments));
+        List<GameRecord> records = new ArrayList<>(recoveredGames.size());
+        for (GameEntity game : recoveredGames) {
+            records.add(new GameRecord(game.getId(), game.getVersion(), ByteBuffer.wrap(codec.encode(game))));
+        }
+        checkpointStore.write(records);
+        segmentNumber = segments.isEmpty() ? 0 : segmentNumber(segments.get(segments.size() - 1));
+        openNextSegment();
+        for (Path oldSegment : segments) {
+            Files.delete(oldSegment);
+        }
+        restoreTime = System.nanoTime() - start;
+        log.info("Recovered {} games from checkpoint and {} journal segments in {} ms",
+                recoveredGames.size(), segments.size(), TimeUnit.NANOSECONDS.toMillis(restoreTime));
+
+        running = true;
+        writerThread = new Thread(this::write, "game-journal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public List<GameEntity> getRecoveredGames() {
+        return recoveredGames;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getRestoreTime(TimeUnit unit) {
+        return unit.convert(restoreTime, TimeUnit.NANOSECONDS);
+    }
+
+    public CompletableFuture<Long> roll() {
+        PendingRecord roll = new PendingRecord(null);
+        pendingRecords.add(roll);
+        return roll.written;
+    }
+
+    public void deleteSegmentsBefore(long number) throws IOException {
+        for (Path segment : listSegments()) {
+            if (segmentNumber(segment) < number) {
+                Files.delete(segment);
+            }
+        }
+    }
+
+    public CompletableFuture<Long> store(GameEntity game) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(segmentNumber);
+        }
+        ByteBuffer frame = frame(STORE, game.getId(), game.getVersion(), codec.encode(game));
+        return enqueue(() -> frame);
+    }
+
+    public CompletableFuture<Long> storeRound(String gameId, long version, GameRoundDelta delta) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(segmentNumber);
+        }
+        return enqueue(() -> frame(ROUND, gameId, version, delta.encode()));
+    }
+
+    public CompletableFuture<Long> remove(String gameId, long version) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(segmentNumber);
+        }
+        ByteBuffer frame = frame(REMOVE, gameId, version, new byte[0]);
+        return enqueue(() -> frame);
+    }
+
+    private CompletableFuture<Long> enqueue(Supplier<ByteBuffer> encoder) {
+        PendingRecord record = new PendingRecord(encoder);
+        pendingRecords.add(record);
+        return record.written;
+    }
+
+    public int getPendingRecords() {
+        return pendingRecords.size();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException, IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writerThread.join();
+        channel.close();
+    }
+
+    private void write() {
+        List<PendingRecord> batch = new ArrayList<>();
+        int attempts = 0;
+        while (running || !pendingRecords.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    PendingRecord record = pendingRecords.poll(flushInterval, TimeUnit.MILLISECONDS);
+                    if (record == null) {
+                        continue;
+                    }
+                    batch.add(record);
+                }
+                pendingRecords.drainTo(batch);
+                writeBatch(batch);
+                batch.clear();
+                attempts = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failAll(batch, e);
+                return;
+            } catch (IOException | UncheckedIOException e) {
+                if (!running) {
+                    log.error("Cannot write game journal, dropping {} records on shutdown", batch.size(), e);
+                    failAll(batch, e);
+                    batch.clear();
+                    continue;
+                }
+                if (++attempts > maxRetries) {
+                    log.error("Cannot write game journal, failing {} records after {} attempts", batch.size(), attempts, e);
+                    for (PendingRecord record : batch) {
+                        record.written.completeExceptionally(e);
+                    }
+                    batch.clear();
+                    attempts = 0;
+                    continue;
+                }
+                log.error("Cannot write game journal, retrying {} records", batch.size(), e);
+                try {
+                    Thread.sleep(RETRY_DELAY);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    failAll(batch, e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingRecord> batch) throws IOException {
+        for (PendingRecord record : batch) {
+            if (record.encoder == null) {
+                if (record.segment == 0) {
+                    rollSegment();
+                    record.segment = segmentNumber;
+                }
+                continue;
+            }
+            if (record.segment != 0) {
+                continue;
+            }
+            ByteBuffer frame = record.frame();
+            if (frame.remaining() + FRAME_HEADER > segmentSize) {
+                record.written.completeExceptionally(new IOException(
+                        "Journal record of " + frame.remaining() + " bytes exceeds segment size"));
+            } else {
+                append(frame.duplicate());
+                record.segment = segmentNumber;
+            }
+        }
+        segment.force();
+        for (PendingRecord record : batch) {
+            record.written.complete(record.segment);
+        }
+    }
+
+    private void failAll(List<PendingRecord> batch, Exception e) {
+        for (PendingRecord record : batch) {
+            record.written.completeExceptionally(e);
+        }
+        for (PendingRecord record = pendingRecords.poll(); record != null; record = pendingRecords.poll()) {
+            record.written.completeExceptionally(e);
+        }
+    }
+
+    private void append(ByteBuffer record) throws IOException {
+        if (segment.remaining() < record.remaining() + Integer.BYTES) {
+            segment.force();
+            channel.close();
+            openNextSegment();
+        }
+        segment.put(record);
+    }
+
+    private void rollSegment() throws IOException {
+        segment.force();
+        channel.close();
+        openNextSegment();
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentNumber++;
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    private ByteBuffer frame(byte type, String gameId, long version, byte[] payload) {
+        byte[] id = gameId.getBytes(StandardCharsets.UTF_8);
+        int bodyLength = 1 + Long.BYTES + Short.BYTES + id.length + payload.length;
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + bodyLength);
+        frame.putInt(bodyLength);
+        frame.putInt(0);
+        frame.put(type);
+        frame.putLong(version);
+        frame.putShort((short) id.length);
+        frame.put(id);
+        frame.put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(frame.array(), FRAME_HEADER, bodyLength);
+        frame.putInt(Integer.BYTES, (int) crc.getValue());
+        frame.flip();
+        return frame;
+    }
+
+    private List<GameEntity> replay(Map<String, GameRecord> checkpoint, List<Path> segments) throws IOException {
+        Map<String, Long> versions = new HashMap<>();
+        Map<String, ByteBuffer> payloads = new HashMap<>();
+        Map<String, List<ByteBuffer>> rounds = new HashMap<>();
+        for (GameRecord record : checkpoint.values()) {
+            versions.put(record.getGameId(), record.getVersion());
+            payloads.put(record.getGameId(), record.getPayload());
+        }
+        for (Path path : segments) {
+            try (FileChannel segmentChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = segmentChannel.map(FileChannel.MapMode.READ_ONLY, 0, segmentChannel.size());
+                while (buffer.remaining() >= FRAME_HEADER) {
+                    int bodyLength = buffer.getInt();
+                    int checksum = buffer.getInt();
+                    if (bodyLength <= 0 || bodyLength > buffer.remaining()) {
+                        break;
+                    }
+                    byte[] bytes = new byte[bodyLength];
+                    buffer.get(bytes);
+                    CRC32 crc = new CRC32();
+                    crc.update(bytes, 0, bodyLength);
+                    if ((int) crc.getValue() != checksum) {
+                        log.warn("Journal segment {} has a torn record, ignoring its tail", path);
+                        break;
+                    }
+                    ByteBuffer body = ByteBuffer.wrap(bytes);
+                    byte type = body.get();
+                    long version = body.getLong();
+                    byte[] id = new byte[body.getShort()];
+                    body.get(id);
+                    String gameId = new String(id, StandardCharsets.UTF_8);
+                    if (version <= versions.getOrDefault(gameId, -1L)) {
+                        continue;
+                    }
+                    versions.put(gameId, version);
+                    if (type == STORE) {
+                        payloads.put(gameId, body.slice());
+                        rounds.remove(gameId);
+                    } else if (type == ROUND) {
+                        if (payloads.containsKey(gameId)) {
+                            ByteBuffer round = ByteBuffer.allocate(Long.BYTES + body.remaining());
+                            round.putLong(version).put(body).flip();
+                            rounds.computeIfAbsent(gameId, key -> new ArrayList<>()).add(round);
+                        }
+                    } else {
+                        payloads.remove(gameId);
+                        rounds.remove(gameId);
+                    }
+                }
+            }
+        }
+        List<GameEntity> games = new ArrayList<>(payloads.size());
+        for (Map.Entry<String, ByteBuffer> payload : payloads.entrySet()) {
+            GameEntity game = codec.decode(payload.getValue());
+            for (ByteBuffer round : rounds.getOrDefault(payload.getKey(), Collections.emptyList())) {
+                long version = round.getLong();
+                GameRoundDelta.decode(round).applyTo(game);
+                game.setVersion(version);
+            }
+            games.add(game);
+        }
+        return games;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static class PendingRecord {
+        private final Supplier<ByteBuffer> encoder;
+        private final CompletableFuture<Long> written = new CompletableFuture<>();
+        private ByteBuffer frame;
+        private long segment;
+
+        private PendingRecord(Supplier<ByteBuffer> encoder) {
+            this.encoder = encoder;
+        }
+
+        private ByteBuffer frame() {
+            if (frame == null) {
+                frame = encoder.get();
+            }
+            return frame;
+        }
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,12 @@
+package at.berger.timesup.repository.journal;
+
+import lombok.Value;
+
+import java.nio.ByteBuffer;
+
+@Value
+public class GameRecord {
+    String gameId;
+    long version;
+    ByteBuffer payload;
+}
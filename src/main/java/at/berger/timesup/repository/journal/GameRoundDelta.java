@@ -0,0 +1,169 @@
+package at.berger.timesup.repository.journal;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.entity.GameRoundEntity;
+import at.berger.timesup.entity.GameRoundState;
+import at.berger.timesup.entity.GameState;
+import at.berger.timesup.model.GameSnapshot;
+import lombok.Value;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Value
+public class GameRoundDelta {
+    private static final GameRoundState[] ROUND_STATES = GameRoundState.values();
+
+    String roundId;
+    GameRoundState state;
+    String currentEntry;
+    Instant inProgressTimestamp;
+    int[] availableEntries;
+    long[] correctEntries;
+    long commandSequence;
+    List<String> commandKeys;
+    List<GameEntity.TeamScore> teamScores;
+
+    public static boolean isRoundChange(GameSnapshot previous, GameSnapshot current) {
+        return previous != null
+                && GameState.PLAY.equals(previous.getState()) && GameState.PLAY.equals(current.getState())
+                && previous.getPhase() == current.getPhase()
+                && previous.getCurrentRound() != null && current.getCurrentRound() != null
+                && previous.getCurrentRound().getId().equals(current.getCurrentRound().getId())
+                && previous.getTotalEntryCount() == current.getTotalEntryCount()
+                && previous.getPlayerCount() == current.getPlayerCount()
+                && previous.getTeams().equals(current.getTeams());
+    }
+
+    public static GameRoundDelta of(GameEntity game) {
+        GameRoundEntity round = game.getCurrentRound();
+        return new GameRoundDelta(round.getId(), round.getState(), round.getCurrentEntry(),
+                round.getInProgressTimestamp(), round.getAvailableEntryIds(), round.getCorrectEntryIds().toLongArray(),
+                round.getCommandSequence(), new ArrayList<>(round.getCommandKeys()), game.getTeamScores());
+    }
+
+    public void applyTo(GameEntity game) {
+        GameRoundEntity round = game.getCurrentRound();
+        if (round == null || !round.getId().equals(roundId)) {
+            throw new IllegalStateException("Round " + roundId + " is not the current round of game " + game.getId());
+        }
+        round.setState(state);
+        round.setCurrentEntry(currentEntry);
+        round.setInProgressTimestamp(inProgressTimestamp);
+        round.restoreProgress(availableEntries, game.getTotalEntryCount(), BitSet.valueOf(correctEntries),
+                commandSequence, commandKeys);
+        for (GameEntity.TeamScore teamScore : teamScores) {
+            Map<String, Integer> playerScores = new HashMap<>();
+            for (GameEntity.PlayerScore playerScore : teamScore.getPlayers()) {
+                playerScores.put(playerScore.getPlayer(), playerScore.getScore());
+            }
+            game.getTeam(teamScore.getTeam()).restoreScore(teamScore.getScore(), playerScores);
+        }
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, roundId);
+            out.writeByte(state == null ? 0 : state.ordinal() + 1);
+            writeString(out, currentEntry);
+            out.writeBoolean(inProgressTimestamp != null);
+            if (inProgressTimestamp != null) {
+                out.writeLong(inProgressTimestamp.getEpochSecond());
+                out.writeInt(inProgressTimestamp.getNano());
+            }
+            out.writeInt(availableEntries.length);
+            for (int entry : availableEntries) {
+                out.writeInt(entry);
+            }
+            out.writeInt(correctEntries.length);
+            for (long word : correctEntries) {
+                out.writeLong(word);
+            }
+            out.writeLong(commandSequence);
+            out.writeInt(commandKeys.size());
+            for (String key : commandKeys) {
+                writeString(out, key);
+            }
+            out.writeInt(teamScores.size());
+            for (GameEntity.TeamScore teamScore : teamScores) {
+                writeString(out, teamScore.getTeam());
+                out.writeInt(teamScore.getScore());
+                out.writeInt(teamScore.getPlayers().size());
+                for (GameEntity.PlayerScore playerScore : teamScore.getPlayers()) {
+                    writeString(out, playerScore.getPlayer());
+                    out.writeInt(playerScore.getScore());
+                    out.writeBoolean(playerScore.isSynthetic());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static GameRoundDelta decode(ByteBuffer buffer) {
+        String roundId = readString(buffer);
+        int state = buffer.get();
+        String currentEntry = readString(buffer);
+        Instant inProgressTimestamp = buffer.get() != 0 ? Instant.ofEpochSecond(buffer.getLong(), buffer.getInt()) : null;
+        int[] availableEntries = new int[buffer.getInt()];
+        for (int i = 0; i < availableEntries.length; i++) {
+            availableEntries[i] = buffer.getInt();
+        }
+        long[] correctEntries = new long[buffer.getInt()];
+        for (int i = 0; i < correctEntries.length; i++) {
+            correctEntries[i] = buffer.getLong();
+        }
+        long commandSequence = buffer.getLong();
+        int commandKeyCount = buffer.getInt();
+        List<String> commandKeys = new ArrayList<>(commandKeyCount);
+        for (int i = 0; i < commandKeyCount; i++) {
+            commandKeys.add(readString(buffer));
+        }
+        int teamCount = buffer.getInt();
+        List<GameEntity.TeamScore> teamScores = new ArrayList<>(teamCount);
+        for (int i = 0; i < teamCount; i++) {
+            String team = readString(buffer);
+            int score = buffer.getInt();
+            int playerCount = buffer.getInt();
+            List<GameEntity.PlayerScore> players = new ArrayList<>(playerCount);
+            for (int j = 0; j < playerCount; j++) {
+                players.add(new GameEntity.PlayerScore(readString(buffer), buffer.getInt(), buffer.get() != 0));
+            }
+            teamScores.add(new GameEntity.TeamScore(team, score, players));
+        }
+        return new GameRoundDelta(roundId, state == 0 ? null : ROUND_STATES[state - 1], currentEntry,
+                inProgressTimestamp, availableEntries, correctEntries, commandSequence, commandKeys, teamScores);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,85 @@
+package at.berger.timesup.service;
+
+import at.berger.timesup.executor.GameExecutors;
+import at.berger.timesup.repository.GameChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+@Service
+public class GameEventService {
+
+    private static final long EMITTER_TIMEOUT = 1000 * 60 * 10;
+
+    private final ExecutorService executorService;
+
+    private final Map<String, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    public GameEventService(GameExecutors gameExecutors) {
+        this.executorService = gameExecutors.newExecutor("game-events", 4);
+    }
+
+    public SseEmitter subscribe(String gameId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT);
+        emitters.compute(gameId, (id, gameEmitters) -> {
+            if (gameEmitters == null) {
+                gameEmitters = ConcurrentHashMap.newKeySet();
+            }
+            gameEmitters.add(emitter);
+            return gameEmitters;
+        });
+        emitter.onCompletion(() -> unsubscribe(gameId, emitter));
+        emitter.onTimeout(() -> unsubscribe(gameId, emitter));
+        emitter.onError(e -> unsubscribe(gameId, emitter));
+        return emitter;
+    }
+
+    public int getConnectionCount() {
+        return emitters.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @EventListener
+    public void onGameChanged(GameChangedEvent event) {
+        Set<SseEmitter> gameEmitters = event.isRemoved()
+                ? emitters.remove(event.getGameId()) : emitters.get(event.getGameId());
+        if (gameEmitters == null || gameEmitters.isEmpty()) {
+            return;
+        }
+        executorService.execute(() -> {
+            for (SseEmitter emitter : gameEmitters) {
+                try {
+                    emitter.send(SseEmitter.event().name("change").id(String.valueOf(event.getVersion()))
+                            .data(event.getVersion()));
+                    if (event.isRemoved()) {
+                        emitter.complete();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    unsubscribe(event.getGameId(), emitter);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdown();
+        for (Set<SseEmitter> gameEmitters : emitters.values()) {
+            gameEmitters.forEach(SseEmitter::complete);
+        }
+        emitters.clear();
+    }
+
+    private void unsubscribe(String gameId, SseEmitter emitter) {
+        emitters.computeIfPresent(gameId, (id, gameEmitters) -> {
+            gameEmitters.remove(emitter);
+            return gameEmitters.isEmpty() ? null : gameEmitters;
+        });
+    }
+}
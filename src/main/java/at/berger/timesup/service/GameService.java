@@ -1,14 +1,23 @@
 package at.berger.timesup.service;
 
 import at.berger.timesup.entity.*;
+import at.berger.timesup.metrics.GameMetrics;
+import at.berger.timesup.model.GameRoundSnapshot;
 import at.berger.timesup.model.GameScreenModel;
+import at.berger.timesup.model.GameSnapshot;
+import at.berger.timesup.model.LobbyPage;
+import at.berger.timesup.model.RoundCommand;
+import at.berger.timesup.model.RoundCommandResult;
+import at.berger.timesup.model.RoundCommandStatus;
 import at.berger.timesup.model.message.GameException;
 import at.berger.timesup.model.message.GameMessage;
 import at.berger.timesup.model.message.Severity;
 import at.berger.timesup.repository.GameRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -18,13 +27,31 @@ import java.util.stream.Stream;
 @AllArgsConstructor
 public class GameService {
 
+    private static final int LOBBY_PAGE_SIZE = 20;
+
     private final GameRepository gameRepository;
 
+    private final GameMetrics gameMetrics;
+
+    @PostConstruct
+    public void recoverGames() {
+        for (GameSnapshot game : gameRepository.recover()) {
+            GameRoundSnapshot currentRound = game.getCurrentRound();
+            if (GameState.PLAY.equals(game.getState())
+                    && currentRound != null
+                    && GameRoundState.IN_PROGRESS.equals(currentRound.getState())) {
+                scheduleRoundEnd(game.getId(), currentRound.getId(), currentRound.getPlayerName(),
+                        Math.max(currentRound.getRemainingTime(), 0));
+            }
+        }
+    }
+
+    @Timed(GameMetrics.COMMAND_TIMER)
     public GameEntity createGame(String gameName, List<String> teams, Integer roundTime, Integer entriesPerPlayer, String description, boolean assignTeams) {
         requireNotEmptyString(gameName);
         requireNotEmptyString(teams.toArray(new String[0]));
         GameEntity gameEntity = new GameEntity();
-        gameEntity.setId(UUID.randomUUID().toString());
+        gameEntity.setId(gameRepository.nextId());
         gameEntity.setName(gameName);
         gameEntity.addTeams(teams.stream().map(GameTeamEntity::new).collect(Collectors.toList()));
         gameEntity.setState(GameState.SETUP);
@@ -33,16 +60,15 @@ public class GameService {
         gameEntity.setDescription(description);
         gameEntity.setAssignTeams(assignTeams);
         gameRepository.create(gameEntity);
-
-        gameRepository.removeIn(gameEntity.getId(), 1000 * 60 * 60 * 4);
         return gameEntity;
     }
 
+    @Timed(GameMetrics.COMMAND_TIMER)
     public String joinSetupGame(String gameId, String teamName, String playerName, Set<String> entries) {
         requireNotEmptyString(gameId, playerName);
         requireNotEmptyString(entries.toArray(new String[0]));
-        requireState(gameId, GameState.SETUP);
         return gameRepository.update(gameId, game -> {
+            requireState(game, GameState.SETUP);
             if (game.getEntriesPerPlayer() != entries.size()) {
                 throw new GameException(new GameMessage("Must provide " + game.getEntriesPerPlayer() + " unique entries."));
             }
@@ -52,82 +78,164 @@ public class GameService {
                 return assignedTeam.getName();
             } else {
                 requireNotEmptyString(teamName);
-                requireTeam(gameId, teamName);
+                requireTeam(game, teamName);
                 game.addPlayerEntries(teamName, playerName, entries);
                 return teamName;
             }
         });
     }
 
+    @Timed(GameMetrics.COMMAND_TIMER)
     public void joinPlayGame(String gameId, String teamName, String playerName) {
         requireNotEmptyString(gameId, teamName, playerName);
-        requireState(gameId, GameState.PLAY);
-        gameRepository.update(gameId, game -> {
-            requireTeam(gameId, teamName);
+        gameRepository.modify(gameId, game -> {
+            requireState(game, GameState.PLAY);
+            requireTeam(game, teamName);
             game.addPlayer(teamName, playerName);
         });
     }
 
     public GameScreenModel getGameScreen(String gameId, String teamName, String playerName) {
-        requirePlayer(gameId, teamName, playerName);
-        return new GameScreenModel(gameRepository.get(gameId));
+        GameSnapshot game = gameRepository.getSnapshot(gameId);
+        requirePlayer(game, teamName, playerName);
+        return new GameScreenModel(game);
     }
 
-    public GameEntity getGame(String gameId) {
-        return gameRepository.get(gameId);
+    public GameSnapshot getGame(String gameId) {
+        return gameRepository.getSnapshot(gameId);
     }
 
+    @Timed(GameMetrics.COMMAND_TIMER)
     public void correctEntry(String gameId, String playerName, String entry) {
-        requireState(gameId, GameState.PLAY);
-        requireRound(gameId, GameRoundState.IN_PROGRESS, playerName);
-        gameRepository.update(gameId, game -> {
-            GameRoundEntity currentRound = game.getCurrentRound();
-            if (!currentRound.addCorrectEntry(entry)) {
-                if (setupNewPhase(game)) {
-                    Integer remainingTime = currentRound.getRemainingTime();
-                    GameTeamEntity team = game.getTeam(currentRound.getTeamName());
-                    setupNewRound(game, team, currentRound.getPlayerName(), remainingTime);
-                }
-            }
+        gameRepository.modify(gameId, game -> {
+            requireState(game, GameState.PLAY);
+            requireRound(game, GameRoundState.IN_PROGRESS, playerName);
+            correctEntry(game, entry);
         });
     }
 
+    private void correctEntry(GameEntity game, String entry) {
+        GameRoundEntity currentRound = game.getCurrentRound();
+        if (!game.addCorrectEntry(entry)) {
+            if (setupNewPhase(game)) {
+                Integer remainingTime = currentRound.getRemainingTime();
+                GameTeamEntity team = game.getTeam(currentRound.getTeamName());
+                setupNewRound(game, team, currentRound.getPlayerName(), remainingTime);
+            }
+        }
+    }
+
+    @Timed(GameMetrics.COMMAND_TIMER)
     public void rejectEntry(String gameId, String playerName, String entry) {
-        requireState(gameId, GameState.PLAY);
-        requireRound(gameId, GameRoundState.IN_PROGRESS, playerName);
-        gameRepository.update(gameId, game -> {
+        gameRepository.modify(gameId, game -> {
+            requireState(game, GameState.PLAY);
+            requireRound(game, GameRoundState.IN_PROGRESS, playerName);
             GameRoundEntity currentRound = game.getCurrentRound();
             currentRound.rejectEntry(entry);
         });
     }
 
-    public void startRound(String gameId, String playerName) {
-        requireState(gameId, GameState.PLAY);
-        requireRound(gameId, GameRoundState.AWAIT_START, playerName);
-        String currentRoundId = gameRepository.get(gameId).getCurrentRound().getId();
-        gameRepository.update(gameId, game -> {
-            game.getCurrentRound().setState(GameRoundState.IN_PROGRESS);
-            game.getCurrentRound().setInProgressTimestamp(Instant.now());
-        });
-        Integer roundTime = gameRepository.get(gameId).getCurrentRound().getRoundTime();
-        gameRepository.updateIn(gameId, roundTime, game -> {
-            if (!game.getCurrentRound().getId().equals(currentRoundId)) {
-                return;
+    @Timed(GameMetrics.COMMAND_TIMER)
+    public List<RoundCommandResult> applyRoundCommands(String gameId, String playerName, String roundId, List<RoundCommand> commands) {
+        requireNotEmptyString(gameId, playerName, roundId);
+        if (commands == null) {
+            throw new GameException(new GameMessage("No commands given"));
+        }
+        List<RoundCommand> ordered = new ArrayList<>(commands);
+        for (RoundCommand command : ordered) {
+            if (command == null) {
+                throw new GameException(new GameMessage("Commands must not be null"));
+            }
+            if (command.getAction() == null) {
+                throw new GameException(new GameMessage("Command " + command.getSequence() + " has no action"));
+            }
+            requireNotEmptyString(command.getKey(), command.getEntry());
+        }
+        ordered.sort(Comparator.comparingLong(RoundCommand::getSequence));
+        return gameRepository.update(gameId, game -> {
+            GameRoundEntity round = game.getRound(roundId);
+            if (round == null) {
+                throw new GameException(new GameMessage("Round " + roundId + " does not exist"));
+            }
+            if (!round.getPlayerName().equals(playerName)) {
+                throw new GameException(new GameMessage("Round doesn't belong to player " + playerName));
+            }
+            List<RoundCommandResult> results = new ArrayList<>(ordered.size());
+            boolean rejected = false;
+            for (RoundCommand command : ordered) {
+                if (round.isCommandApplied(command.getKey(), command.getSequence())) {
+                    results.add(result(command, RoundCommandStatus.DUPLICATE, null));
+                } else if (rejected) {
+                    results.add(result(command, RoundCommandStatus.SKIPPED, null));
+                } else if (!GameState.PLAY.equals(game.getState()) || game.getCurrentRound() != round
+                        || !GameRoundState.IN_PROGRESS.equals(round.getState())) {
+                    results.add(result(command, RoundCommandStatus.REJECTED, "Round is not in progress"));
+                    rejected = true;
+                } else {
+                    try {
+                        applyRoundCommand(game, round, command);
+                        round.recordCommand(command.getKey(), command.getSequence());
+                        results.add(result(command, RoundCommandStatus.APPLIED, null));
+                    } catch (GameException e) {
+                        results.add(result(command, RoundCommandStatus.REJECTED, e.getMessage()));
+                        rejected = true;
+                    }
+                }
             }
-            requireState(gameId, GameState.PLAY);
-            requireRound(gameId, GameRoundState.IN_PROGRESS, playerName);
+            return results;
+        }, results -> results.stream().anyMatch(result -> RoundCommandStatus.APPLIED.equals(result.getStatus())));
+    }
+
+    private void applyRoundCommand(GameEntity game, GameRoundEntity round, RoundCommand command) {
+        switch (command.getAction()) {
+            case CORRECT:
+                correctEntry(game, command.getEntry());
+                break;
+            case REJECT:
+                round.rejectEntry(command.getEntry());
+                break;
+        }
+    }
+
+    private static RoundCommandResult result(RoundCommand command, RoundCommandStatus status, String message) {
+        return new RoundCommandResult(command.getSequence(), command.getKey(), status, message);
+    }
+
+    @Timed(GameMetrics.COMMAND_TIMER)
+    public void startRound(String gameId, String playerName) {
+        gameRepository.modify(gameId, game -> {
+            requireState(game, GameState.PLAY);
+            requireRound(game, GameRoundState.AWAIT_START, playerName);
             GameRoundEntity currentRound = game.getCurrentRound();
-            currentRound.setState(GameRoundState.END);
-            game.removeEntries(currentRound.getCorrectEntries());
+            currentRound.setState(GameRoundState.IN_PROGRESS);
+            currentRound.setInProgressTimestamp(Instant.now());
+            scheduleRoundEnd(gameId, currentRound.getId(), playerName, currentRound.getRoundTime());
+        });
+    }
+
+    private void scheduleRoundEnd(String gameId, String roundId, String playerName, int delay) {
+        gameRepository.updateIn(gameId, delay, game ->
+                gameMetrics.command(GameService.class, "endRound", () -> endRound(game, roundId, playerName)));
+    }
 
-            if (game.hasMoreEntries()) {
+    private boolean endRound(GameEntity game, String roundId, String playerName) {
+        if (!game.getCurrentRound().getId().equals(roundId)) {
+            return false;
+        }
+        requireState(game, GameState.PLAY);
+        requireRound(game, GameRoundState.IN_PROGRESS, playerName);
+        GameRoundEntity currentRound = game.getCurrentRound();
+        currentRound.setState(GameRoundState.END);
+        game.removeEntries(currentRound.getCorrectEntryIds());
+
+        if (game.hasMoreEntries()) {
+            setupNextRound(game);
+        } else {
+            if (setupNewPhase(game)) {
                 setupNextRound(game);
-            } else {
-                if (setupNewPhase(game)) {
-                    setupNextRound(game);
-                }
             }
-        });
+        }
+        return true;
     }
 
     private boolean setupNewPhase(GameEntity game) {
@@ -136,6 +244,7 @@ public class GameService {
         if (indexOfPhase + 1 == phases.size()) {
             game.setPhase(null);
             game.setState(GameState.END);
+            game.getCurrentRound().releaseEntries();
             return false;
         } else {
             game.setPhase(phases.get(indexOfPhase + 1));
@@ -150,106 +259,109 @@ public class GameService {
         if (previousRound != null) {
             setupNewRound(game, nextTeam, nextTeam.getNextPlayer(previousRound.getPlayerName()), game.getRoundTime());
         } else {
-            setupNewRound(game, nextTeam, nextTeam.getRandomPlayer(), game.getRoundTime());
+            setupNewRound(game, nextTeam, nextTeam.getRandomPlayer(game.getRandom()), game.getRoundTime());
         }
     }
 
+    @Timed(GameMetrics.COMMAND_TIMER)
     public void startGame(String gameId) {
-        requireState(gameId, GameState.SETUP);
-        gameRepository.update(gameId, game -> {
-            if (!game.getTeams().stream().allMatch(t -> t.getPlayers().size() >= 2)) {
+        gameRepository.modify(gameId, game -> {
+            requireState(game, GameState.SETUP);
+            if (!game.getTeams().stream().allMatch(t -> t.getPlayerCount() >= 2)) {
                 throw new GameException(new GameMessage("Each team must have atleast two players to start game"));
             }
             game.setState(GameState.PLAY);
             game.setPhase(GamePhase.ALL_WORDS);
             GameTeamEntity team = game.getRandomTeam();
-            setupNewRound(game, team, team.getRandomPlayer(), game.getRoundTime());
+            setupNewRound(game, team, team.getRandomPlayer(game.getRandom()), game.getRoundTime());
         });
     }
 
-    public List<GameEntity> getAvailableGames() {
-        return gameRepository.getSetupAndPlay();
+    public LobbyPage getAvailableGames(String search, int page) {
+        int currentPage = Math.max(page, 0);
+        List<GameSnapshot> games = gameRepository.getSetupAndPlay(search, currentPage * LOBBY_PAGE_SIZE, LOBBY_PAGE_SIZE + 1);
+        boolean hasNext = games.size() > LOBBY_PAGE_SIZE;
+        return new LobbyPage(hasNext ? games.subList(0, LOBBY_PAGE_SIZE) : games, search, currentPage, hasNext);
     }
 
     public void validateCanJoin(String gameId) {
-        requireState(gameId, GameState.SETUP, GameState.PLAY);
+        requireState(gameRepository.getSnapshot(gameId).getState(), GameState.SETUP, GameState.PLAY);
     }
 
+    @Timed(GameMetrics.COMMAND_TIMER)
     public void leaveGame(String gameId, String playerName, boolean closeOnSetup) {
-        GameEntity game = gameRepository.get(gameId);
-        if (GameState.SETUP.equals(game.getState())) {
-            if (closeOnSetup) {
-                gameRepository.remove(gameId);
+        gameRepository.modify(gameId, game -> {
+            if (GameState.SETUP.equals(game.getState())) {
+                if (closeOnSetup) {
+                    gameRepository.remove(gameId);
+                    return;
+                }
+                if (playerName != null) {
+                    game.removePlayer(playerName, true);
+                }
                 return;
             }
-            if (playerName != null) {
-                gameRepository.update(gameId, g -> {
-                    g.removePlayer(playerName, true);
-                });
-            }
-            return;
-        }
-        GameTeamEntity team = game.getPlayerTeam(playerName);
-        if (team.getPlayers().size() <= 1) {
-            if (game.getTeams().stream().allMatch(t -> t.getPlayers().size() <= 1)) {
-                gameRepository.remove(gameId);
-                return;
+            GameTeamEntity team = game.getPlayerTeam(playerName);
+            if (team.getPlayerCount() <= 1) {
+                if (game.getTeams().stream().allMatch(t -> t.getPlayerCount() <= 1)) {
+                    gameRepository.remove(gameId);
+                    return;
+                }
+                adjustTeam(game, team);
             }
-            adjustTeam(game, team);
-        }
-        removePlayer(gameId, playerName);
+            removePlayer(game, playerName);
+        });
     }
 
+    @Timed(GameMetrics.COMMAND_TIMER)
     public void kickPlayer(String gameId, String playerName) {
-        GameEntity game = gameRepository.get(gameId);
-        GameTeamEntity team = game.getPlayerTeam(playerName);
-        if (!GameState.SETUP.equals(game.getState())) {
-            if (team.getPlayers().size() <= 1) {
-                if (game.getTeams().stream().allMatch(t -> t.getPlayers().size() <= 1)) {
-                    throw new GameException(new GameMessage("Cannot kick last team player"));
+        gameRepository.modify(gameId, game -> {
+            GameTeamEntity team = game.getPlayerTeam(playerName);
+            if (!GameState.SETUP.equals(game.getState())) {
+                if (team.getPlayerCount() <= 1) {
+                    if (game.getTeams().stream().allMatch(t -> t.getPlayerCount() <= 1)) {
+                        throw new GameException(new GameMessage("Cannot kick last team player"));
+                    }
+                    adjustTeam(game, team);
                 }
-                adjustTeam(game, team);
             }
-        }
-        removePlayer(gameId, playerName);
+            removePlayer(game, playerName);
+        });
     }
 
     private void adjustTeam(GameEntity game, GameTeamEntity team) {
         GameTeamEntity cutTeam = game.getRandomTeamWithMostPlayers();
-        String cutPlayer = cutTeam.getRandomPlayer();
-        cutTeam.removePlayer(cutPlayer);
-        team.addPlayer(cutPlayer);
+        game.movePlayer(cutTeam.getRandomPlayer(game.getRandom()), team.getName());
     }
 
-    private void removePlayer(String gameId, String playerName) {
-        gameRepository.update(gameId, game -> {
-            game.removePlayer(playerName, false);
-            GameRoundEntity currentRound = game.getCurrentRound();
-            if (currentRound != null
-                    && currentRound.getPlayerName().equals(playerName)) {
-                currentRound.setState(GameRoundState.END);
-                Integer remainingTime = currentRound.getRemainingTime();
-                GameTeamEntity team = game.getTeam(currentRound.getTeamName());
-                setupNewRound(game, team, team.getRandomPlayer(), remainingTime);
-            }
-        });
+    private void removePlayer(GameEntity game, String playerName) {
+        game.removePlayer(playerName, false);
+        GameRoundEntity currentRound = game.getCurrentRound();
+        if (currentRound != null
+                && currentRound.getPlayerName().equals(playerName)) {
+            currentRound.setState(GameRoundState.END);
+            Integer remainingTime = currentRound.getRemainingTime();
+            GameTeamEntity team = game.getTeam(currentRound.getTeamName());
+            setupNewRound(game, team, team.getRandomPlayer(game.getRandom()), remainingTime);
+        }
     }
 
 
     private void setupNewRound(GameEntity game, GameTeamEntity team, String player, Integer roundTime) {
+        gameRepository.cancelUpdate(game.getId());
         GameRoundEntity newRound = new GameRoundEntity();
         newRound.setState(GameRoundState.AWAIT_START);
         newRound.setTeamName(team.getName());
         newRound.setPlayerName(player);
-        newRound.addEntries(game.getAvailableEntries());
+        newRound.addEntries(game.getEntryDictionary(), game.getAvailableEntries(), game.getRandom());
         newRound.setId(UUID.randomUUID().toString());
         newRound.setRoundTime(roundTime);
         newRound.setStartTimestamp(Instant.now());
         game.addRound(newRound);
     }
 
-    private void requireRound(String gameId, GameRoundState roundState, String playerName) {
-        GameRoundEntity round = gameRepository.get(gameId).getCurrentRound();
+    private void requireRound(GameEntity game, GameRoundState roundState, String playerName) {
+        GameRoundEntity round = game.getCurrentRound();
         if (!round.getPlayerName().equals(playerName)) {
             throw new GameException(new GameMessage("Round doesn't belong to player " + playerName));
         }
@@ -258,15 +370,19 @@ public class GameService {
         }
     }
 
-    private void requireTeam(String gameId, String teamName) {
-        if (!gameRepository.get(gameId).containsTeam(teamName)) {
-            throw new GameException(new GameMessage("Game " + gameId + " does not contain team " + teamName));
+    private void requireTeam(GameEntity game, String teamName) {
+        if (!game.containsTeam(teamName)) {
+            throw new GameException(new GameMessage("Game " + game.getId() + " does not contain team " + teamName));
         }
     }
 
-    private void requireState(String gameId, GameState... states) {
-        if (!Arrays.asList(states).contains(gameRepository.get(gameId).getState())) {
-            throw new GameException(new GameMessage("Game needs to be in states " + states));
+    private void requireState(GameEntity game, GameState... states) {
+        requireState(game.getState(), states);
+    }
+
+    private void requireState(GameState state, GameState... states) {
+        if (!Arrays.asList(states).contains(state)) {
+            throw new GameException(new GameMessage("Game needs to be in states " + Arrays.toString(states)));
         }
     }
 
@@ -276,8 +392,8 @@ public class GameService {
         }
     }
 
-    private void requirePlayer(String gameId, String teamName, String playerName) {
-        if (!getGame(gameId).getTeam(teamName).getPlayers().contains(playerName)) {
+    private void requirePlayer(GameSnapshot game, String teamName, String playerName) {
+        if (!game.containsPlayer(teamName, playerName)) {
             throw new GameException(Severity.FATAL, new GameMessage("Game does not contain player"));
         }
     }
@@ -0,0 +1,29 @@
+package at.berger.timesup.service;
+
+import at.berger.timesup.model.GameSnapshot;
+import at.berger.timesup.model.GameStateDelta;
+import at.berger.timesup.model.message.GameException;
+import at.berger.timesup.model.message.GameMessage;
+import at.berger.timesup.model.message.Severity;
+import at.berger.timesup.repository.GameRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+
+@Service
+@AllArgsConstructor
+public class GameStateService {
+
+    private final GameRepository gameRepository;
+
+    public GameStateDelta getState(String gameId, String teamName, String playerName, Long sinceVersion) {
+        GameSnapshot game = gameRepository.getSnapshot(gameId);
+        if (playerName != null && !game.containsPlayer(teamName, playerName)) {
+            throw new GameException(Severity.FATAL, new GameMessage("Game does not contain player"));
+        }
+        GameSnapshot base = sinceVersion == null ? null : gameRepository.getSnapshot(gameId, sinceVersion);
+        if (base == null) {
+            return GameStateDelta.full(game, playerName);
+        }
+        return GameStateDelta.between(base, game, playerName);
+    }
+}
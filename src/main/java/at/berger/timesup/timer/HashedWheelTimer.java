@@ -0,0 +1,249 @@
+package at.berger.timesup.timer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+public class HashedWheelTimer {
+
+    private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+    private final long tickDuration;
+    private final HashedWheelBucket[] wheel;
+    private final int mask;
+    private final Executor taskExecutor;
+    private final long startTime;
+    private final Thread workerThread;
+
+    private final Queue<HashedWheelTimeout> scheduledTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<HashedWheelTimeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pendingTimeouts = new AtomicInteger();
+    private final AtomicLong lastFiringLag = new AtomicLong();
+    private final AtomicLong maxFiringLag = new AtomicLong();
+
+    private volatile boolean running = true;
+    private long tick;
+
+    public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel, Executor taskExecutor) {
+        if (tickDuration <= 0 || ticksPerWheel <= 0) {
+            throw new IllegalArgumentException("Tick duration and ticks per wheel must be positive");
+        }
+        int wheelSize = 1;
+        while (wheelSize < ticksPerWheel) {
+            wheelSize <<= 1;
+        }
+        this.tickDuration = unit.toNanos(tickDuration);
+        this.wheel = new HashedWheelBucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new HashedWheelBucket();
+        }
+        this.mask = wheelSize - 1;
+        this.taskExecutor = taskExecutor;
+        this.startTime = System.nanoTime();
+        this.workerThread = new Thread(this::work, name);
+        this.workerThread.setDaemon(true);
+        this.workerThread.start();
+    }
+
+    public Timeout newTimeout(TimerTask task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("Timer has been stopped");
+        }
+        long deadline = System.nanoTime() + unit.toNanos(Math.max(delay, 0)) - startTime;
+        HashedWheelTimeout timeout = new HashedWheelTimeout(task, deadline);
+        pendingTimeouts.incrementAndGet();
+        scheduledTimeouts.add(timeout);
+        return timeout;
+    }
+
+    public void stop() {
+        running = false;
+        workerThread.interrupt();
+    }
+
+    public int getPendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    public long getLastFiringLag(TimeUnit unit) {
+        return unit.convert(lastFiringLag.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxFiringLag(TimeUnit unit) {
+        return unit.convert(maxFiringLag.get(), TimeUnit.NANOSECONDS);
+    }
+
+    private void work() {
+        while (running) {
+            long deadline = waitForNextTick();
+            if (deadline == Long.MIN_VALUE) {
+                continue;
+            }
+            removeCancelledTimeouts();
+            transferScheduledTimeouts();
+            wheel[(int) (tick & mask)].expireTimeouts(deadline);
+            tick++;
+        }
+    }
+
+    private long waitForNextTick() {
+        long deadline = tickDuration * (tick + 1);
+        while (true) {
+            long currentTime = System.nanoTime() - startTime;
+            long sleepTime = TimeUnit.NANOSECONDS.toMillis(deadline - currentTime + 999999);
+            if (sleepTime <= 0) {
+                return currentTime;
+            }
+            try {
+                Thread.sleep(sleepTime);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return Long.MIN_VALUE;
+                }
+            }
+        }
+    }
+
+    private void removeCancelledTimeouts() {
+        HashedWheelTimeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferScheduledTimeouts() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            HashedWheelTimeout timeout = scheduledTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long calculatedTick = timeout.deadline / tickDuration;
+            timeout.remainingRounds = (calculatedTick - tick) / wheel.length;
+            long bucketTick = Math.max(calculatedTick, tick);
+            wheel[(int) (bucketTick & mask)].add(timeout);
+        }
+    }
+
+    private final class HashedWheelBucket {
+        private HashedWheelTimeout head;
+        private HashedWheelTimeout tail;
+
+        private void add(HashedWheelTimeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = timeout;
+                tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        private void expireTimeouts(long deadline) {
+            HashedWheelTimeout timeout = head;
+            while (timeout != null) {
+                HashedWheelTimeout next = timeout.next;
+                if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire(deadline);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(HashedWheelTimeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = timeout.next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+
+    private final class HashedWheelTimeout implements Timeout {
+        private static final int STATE_INIT = 0;
+        private static final int STATE_CANCELLED = 1;
+        private static final int STATE_EXPIRED = 2;
+
+        private final TimerTask task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+
+        private long remainingRounds;
+        private HashedWheelBucket bucket;
+        private HashedWheelTimeout next;
+        private HashedWheelTimeout prev;
+
+        private HashedWheelTimeout(TimerTask task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(STATE_INIT, STATE_CANCELLED)) {
+                return false;
+            }
+            pendingTimeouts.decrementAndGet();
+            cancelledTimeouts.add(this);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == STATE_CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state.get() == STATE_EXPIRED;
+        }
+
+        private void expire(long currentTime) {
+            if (!state.compareAndSet(STATE_INIT, STATE_EXPIRED)) {
+                return;
+            }
+            pendingTimeouts.decrementAndGet();
+            long lag = Math.max(currentTime - deadline, 0);
+            lastFiringLag.set(lag);
+            maxFiringLag.accumulateAndGet(lag, Math::max);
+            taskExecutor.execute(() -> {
+                try {
+                    task.run(this);
+                } catch (RuntimeException e) {
+                    log.warn("Timer task failed", e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package at.berger.timesup.timer;
+
+public interface Timeout {
+
+    boolean cancel();
+
+    boolean isCancelled();
+
+    boolean isExpired();
+}
@@ -0,0 +1,6 @@
+package at.berger.timesup.timer;
+
+public interface TimerTask {
+
+    void run(Timeout timeout);
+}
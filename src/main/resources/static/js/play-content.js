@@ -0,0 +1,62 @@
+var contentEtag = null;
+var serverTimeOffset = 0;
+
+function contentVersion() {
+    if (!contentEtag) {
+        return -1;
+    }
+    return Number(contentEtag.replace(/^W\//, "").replace(/"/g, "").split("-")[0]);
+}
+
+function loadContent() {
+    var xhttp = new XMLHttpRequest();
+    xhttp.onreadystatechange = function () {
+        if (this.readyState === 4 && this.status === 200) {
+            contentEtag = this.getResponseHeader("ETag");
+            var serverTime = Number(this.getResponseHeader("X-Server-Time"));
+            if (serverTime) {
+                serverTimeOffset = serverTime - Date.now();
+            }
+            var content = document.getElementById("play-content");
+            content.innerHTML = this.responseText;
+            if (window.onContentLoaded) {
+                window.onContentLoaded(content);
+            }
+            var pageJs = document.getElementById('page-js');
+            if (pageJs) {
+                eval(pageJs.innerHTML);
+            }
+        }
+    };
+    xhttp.open("GET", "/ajax/play", true);
+    if (contentEtag) {
+        xhttp.setRequestHeader("If-None-Match", contentEtag);
+    }
+    xhttp.send();
+}
+
+function listenForChanges(pollInterval) {
+    if (!window.EventSource) {
+        setInterval(loadContent, pollInterval);
+        return;
+    }
+    var polling = setInterval(loadContent, pollInterval);
+    var source = new EventSource("/ajax/events");
+    source.onopen = function () {
+        if (polling) {
+            clearInterval(polling);
+            polling = null;
+        }
+        loadContent();
+    };
+    source.addEventListener("change", function (event) {
+        if (Number(event.data) > contentVersion()) {
+            loadContent();
+        }
+    });
+    source.onerror = function () {
+        if (!polling) {
+            polling = setInterval(loadContent, pollInterval);
+        }
+    };
+}
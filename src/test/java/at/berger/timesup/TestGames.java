@@ -0,0 +1,63 @@
+package at.berger.timesup;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.entity.GamePhase;
+import at.berger.timesup.entity.GameRoundEntity;
+import at.berger.timesup.entity.GameRoundState;
+import at.berger.timesup.entity.GameState;
+import at.berger.timesup.entity.GameTeamEntity;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public final class TestGames {
+
+    public static final List<String> ENTRIES = Collections.unmodifiableList(Arrays.asList(
+            "apple", "pear", "plum", "fig", "kiwi", "lime", "date", "äpfel"));
+
+    public static final Instant START = Instant.ofEpochSecond(1600000000L);
+
+    private TestGames() {
+    }
+
+    public static GameEntity newGame(String id) {
+        GameEntity game = new GameEntity();
+        game.setId(id);
+        game.setName("Game " + id);
+        game.setDescription("Test game");
+        game.setState(GameState.SETUP);
+        game.setRoundTime(60000);
+        game.setEntriesPerPlayer(2);
+        game.addTeams(Arrays.asList(new GameTeamEntity("A"), new GameTeamEntity("B")));
+        game.addPlayerEntries("A", "p1", new HashSet<>(ENTRIES.subList(0, 2)));
+        game.addPlayerEntries("A", "p2", new HashSet<>(ENTRIES.subList(2, 4)));
+        game.addPlayerEntries("B", "p3", new HashSet<>(ENTRIES.subList(4, 6)));
+        game.addPlayerEntries("B", "p4", new HashSet<>(ENTRIES.subList(6, 8)));
+        game.setVersion(1);
+        return game;
+    }
+
+    public static GameEntity playedGame(String id) {
+        GameEntity game = newGame(id);
+        game.setState(GameState.PLAY);
+        game.setPhase(GamePhase.ALL_WORDS);
+        game.addRound(newRound(game, "A", "p1"));
+        game.setVersion(5);
+        return game;
+    }
+
+    public static GameRoundEntity newRound(GameEntity game, String teamName, String playerName) {
+        GameRoundEntity round = new GameRoundEntity();
+        round.setId("round-" + (game.getRoundCount() + 1));
+        round.setState(GameRoundState.AWAIT_START);
+        round.setTeamName(teamName);
+        round.setPlayerName(playerName);
+        round.setRoundTime(game.getRoundTime());
+        round.setStartTimestamp(START);
+        round.addEntries(game.getEntryDictionary(), game.getAvailableEntries(), game.getRandom());
+        return round;
+    }
+}
@@ -0,0 +1,97 @@
+package at.berger.timesup.controller;
+
+import at.berger.timesup.controller.FragmentCache.FragmentKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FragmentCacheTests {
+
+    private final FragmentCache cache = new FragmentCache();
+
+    @Test
+    void rendersConcurrentRequestsForSameKeyOnce() throws Exception {
+        FragmentKey key = key(1);
+        AtomicInteger renders = new AtomicInteger();
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> cache.get(key, () -> {
+                renders.incrementAndGet();
+                rendering.countDown();
+                await(release);
+                return "fragment";
+            }));
+            assertThat(rendering.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<String> second = executor.submit(() -> cache.get(key, () -> {
+                renders.incrementAndGet();
+                return "other";
+            }));
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("fragment");
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("fragment");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(renders.get()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsOldestFragmentOverCapacity() {
+        for (int i = 0; i <= FragmentCache.MAX_SIZE; i++) {
+            cache.get(key(i), () -> "fragment");
+        }
+
+        assertThat(cache.getSize()).isEqualTo(FragmentCache.MAX_SIZE);
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(isCached(key(1))).isTrue();
+        assertThat(isCached(key(0))).isFalse();
+    }
+
+    @Test
+    void forgetsFailedRenderInEvictionOrder() {
+        assertThatThrownBy(() -> cache.get(key(0), () -> {
+            throw new IllegalStateException("render failed");
+        })).isInstanceOf(IllegalStateException.class);
+        for (int i = 1; i < FragmentCache.MAX_SIZE; i++) {
+            cache.get(key(i), () -> "fragment");
+        }
+        cache.get(key(0), () -> "fragment");
+
+        cache.get(key(FragmentCache.MAX_SIZE), () -> "fragment");
+
+        assertThat(cache.getSize()).isEqualTo(FragmentCache.MAX_SIZE);
+        assertThat(isCached(key(0))).isTrue();
+        assertThat(isCached(key(1))).isFalse();
+    }
+
+    private boolean isCached(FragmentKey key) {
+        long misses = cache.getMisses();
+        cache.get(key, () -> "fragment");
+        return cache.getMisses() == misses;
+    }
+
+    private static FragmentKey key(long version) {
+        return new FragmentKey("game", version, "game", false, null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package at.berger.timesup.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntryPoolTests {
+
+    private static final int CAPACITY = 200;
+
+    @Test
+    void startsWithAvailableEntries() {
+        BitSet available = new BitSet();
+        available.set(3);
+        available.set(7);
+        available.set(42);
+
+        EntryPool pool = new EntryPool(available, CAPACITY);
+
+        assertThat(pool.size()).isEqualTo(3);
+        assertThat(pool.contains(3)).isTrue();
+        assertThat(pool.contains(4)).isFalse();
+        assertThat(pool.contains(-1)).isFalse();
+        assertThat(pool.contains(CAPACITY)).isFalse();
+        assertThat(pool.toArray()).containsExactlyInAnyOrder(3, 7, 42);
+    }
+
+    @Test
+    void emptyPoolDrawsNothing() {
+        EntryPool pool = new EntryPool();
+
+        assertThat(pool.isEmpty()).isTrue();
+        assertThat(pool.draw(new Random())).isEqualTo(-1);
+        assertThat(pool.remove(0)).isFalse();
+        assertThat(pool.toArray()).isEmpty();
+    }
+
+    @Test
+    void matchesListSemanticsForRandomRemovals() {
+        Random random = new Random(42);
+        BitSet available = new BitSet();
+        List<Integer> expected = new ArrayList<>();
+        for (int id = 0; id < CAPACITY; id++) {
+            if (random.nextInt(3) > 0) {
+                available.set(id);
+                expected.add(id);
+            }
+        }
+        EntryPool pool = new EntryPool(available, CAPACITY);
+
+        for (int i = 0; i < 1000; i++) {
+            int id = random.nextInt(CAPACITY + 10) - 5;
+            assertThat(pool.contains(id)).isEqualTo(expected.contains(id));
+            assertThat(pool.remove(id)).isEqualTo(expected.remove(Integer.valueOf(id)));
+            assertThat(pool.size()).isEqualTo(expected.size());
+            assertThat(pool.isEmpty()).isEqualTo(expected.isEmpty());
+            if (!expected.isEmpty()) {
+                assertThat(expected).contains(pool.draw(random));
+            }
+        }
+        assertThat(toSet(pool.toArray())).isEqualTo(new HashSet<>(expected));
+    }
+
+    @Test
+    void drawsEveryAvailableEntry() {
+        BitSet available = new BitSet();
+        available.set(0, 10);
+        EntryPool pool = new EntryPool(available, CAPACITY);
+        pool.remove(4);
+        Random random = new Random(7);
+
+        Set<Integer> drawn = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            drawn.add(pool.draw(random));
+        }
+
+        assertThat(drawn).containsExactlyInAnyOrder(0, 1, 2, 3, 5, 6, 7, 8, 9);
+    }
+
+    @Test
+    void restoresFromEncodedEntries() {
+        BitSet available = new BitSet();
+        available.set(5, 15);
+        EntryPool pool = new EntryPool(available, CAPACITY);
+        pool.remove(9);
+        pool.remove(5);
+
+        int[] entries = pool.toArray();
+        EntryPool restored = new EntryPool(entries, entries.length, CAPACITY);
+
+        assertThat(restored.toArray()).containsExactly(entries);
+        assertThat(restored.contains(9)).isFalse();
+        assertThat(restored.remove(14)).isTrue();
+        assertThat(restored.size()).isEqualTo(7);
+    }
+
+    private static Set<Integer> toSet(int[] entries) {
+        return Arrays.stream(entries).boxed().collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,169 @@
+package at.berger.timesup.entity;
+
+import at.berger.timesup.model.message.GameException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static at.berger.timesup.TestGames.ENTRIES;
+import static at.berger.timesup.TestGames.newGame;
+import static at.berger.timesup.TestGames.newRound;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameEntityTests {
+
+    @Test
+    void availableEntriesMatchSetSemantics() {
+        GameEntity game = newGame("game");
+        Set<String> expected = new HashSet<>(ENTRIES);
+        assertThat(availableEntries(game)).isEqualTo(expected);
+
+        BitSet correct = new BitSet();
+        correct.set(game.getEntryDictionary().idOf("apple"));
+        correct.set(game.getEntryDictionary().idOf("kiwi"));
+        game.removeEntries(correct);
+        expected.removeAll(Arrays.asList("apple", "kiwi"));
+        assertThat(availableEntries(game)).isEqualTo(expected);
+        assertThat(poolEntries(game, game.getAvailableEntries().toArray())).isEqualTo(expected);
+
+        BitSet rest = game.getAvailableEntryIds();
+        game.removeEntries(rest);
+        assertThat(game.hasMoreEntries()).isFalse();
+        assertThat(game.getAvailableEntries().isEmpty()).isTrue();
+
+        game.resetEntries();
+        assertThat(availableEntries(game)).containsExactlyInAnyOrderElementsOf(ENTRIES);
+        assertThat(game.getTotalEntryCount()).isEqualTo(ENTRIES.size());
+    }
+
+    @Test
+    void roundEntriesMatchListSemantics() {
+        GameEntity game = newGame("game");
+        GameRoundEntity round = new GameRoundEntity();
+        round.setTeamName("A");
+        round.setPlayerName("p1");
+        round.addEntries(game.getEntryDictionary(), game.getAvailableEntries(), new Random(3));
+        List<String> available = new ArrayList<>(game.getTotalEntries());
+        Set<String> correct = new HashSet<>();
+
+        boolean reject = false;
+        while (round.getCurrentEntry() != null) {
+            String entry = round.getCurrentEntry();
+            assertThat(available).contains(entry);
+            if (reject) {
+                round.rejectEntry(entry);
+            } else {
+                round.addCorrectEntry(entry);
+                available.remove(entry);
+                correct.add(entry);
+            }
+            reject = !reject;
+            assertThat(poolEntries(game, round.getAvailableEntryIds())).isEqualTo(new HashSet<>(available));
+            assertThat(round.getAvailableEntryCount()).isEqualTo(available.size());
+            assertThat(round.getCorrectEntryCount()).isEqualTo(correct.size());
+        }
+
+        assertThat(available).isEmpty();
+        assertThat(correct).containsExactlyInAnyOrderElementsOf(ENTRIES);
+    }
+
+    @Test
+    void rejectsEntriesThatAreNotCurrent() {
+        GameEntity game = newGame("game");
+        GameRoundEntity round = new GameRoundEntity();
+        round.addEntries(game.getEntryDictionary(), game.getAvailableEntries(), new Random(5));
+        String current = round.getCurrentEntry();
+        String other = game.getTotalEntries().stream().filter(e -> !e.equals(current)).findFirst().get();
+
+        assertThatThrownBy(() -> round.addCorrectEntry(other)).isInstanceOf(GameException.class);
+        round.addCorrectEntry(current);
+        assertThatThrownBy(() -> round.removeEntry(current)).isInstanceOf(GameException.class);
+    }
+
+    @Test
+    void releasesEntryPoolOfPreviousRound() {
+        GameEntity game = newGame("game");
+        GameRoundEntity first = newRound(game, "A", "p1");
+        game.addRound(first);
+        assertThat(first.getAvailableEntryCount()).isEqualTo(ENTRIES.size());
+
+        game.addRound(newRound(game, "B", "p3"));
+
+        assertThat(first.getAvailableEntryCount()).isZero();
+        assertThat(game.getCurrentRound().getAvailableEntryCount()).isEqualTo(ENTRIES.size());
+    }
+
+    @Test
+    void scoreboardMatchesScoresRecomputedFromRounds() {
+        GameEntity game = newGame("game");
+        playRound(game, "A", "p1", 2);
+        playRound(game, "B", "p3", 1);
+        playRound(game, "A", "p2", 0);
+        game.removePlayer("p1", false);
+        playRound(game, "B", "p4", 1);
+        game.addPlayer("A", "p0");
+        playRound(game, "A", "p2", 1);
+
+        assertThat(game.getTeamScores()).isEqualTo(recomputeTeamScores(game));
+        assertThat(game.getTeamScores()).extracting(GameEntity.TeamScore::getScore).containsExactly(3, 2);
+    }
+
+    @Test
+    void scoreboardListsPlayersWithoutRounds() {
+        GameEntity game = newGame("game");
+        playRound(game, "A", "p1", 1);
+
+        assertThat(game.getTeamScores()).isEqualTo(recomputeTeamScores(game));
+    }
+
+    private static void playRound(GameEntity game, String teamName, String playerName, int correctEntries) {
+        GameRoundEntity round = newRound(game, teamName, playerName);
+        game.addRound(round);
+        for (int i = 0; i < correctEntries; i++) {
+            game.addCorrectEntry(round.getCurrentEntry());
+        }
+        round.setState(GameRoundState.END);
+    }
+
+    private static List<GameEntity.TeamScore> recomputeTeamScores(GameEntity game) {
+        Map<String, List<GameRoundEntity>> roundsByTeam = game.getRounds().stream()
+                .collect(Collectors.groupingBy(GameRoundEntity::getTeamName));
+        List<GameEntity.TeamScore> scores = new ArrayList<>();
+        for (GameTeamEntity team : game.getTeams()) {
+            List<GameRoundEntity> teamRounds = roundsByTeam.getOrDefault(team.getName(), new ArrayList<>());
+            Map<String, List<GameRoundEntity>> roundsByPlayer = teamRounds.stream()
+                    .collect(Collectors.groupingBy(GameRoundEntity::getPlayerName));
+            Set<String> players = new TreeSet<>(team.getPlayers());
+            players.addAll(roundsByPlayer.keySet());
+            List<GameEntity.PlayerScore> playerScores = new ArrayList<>();
+            for (String player : players) {
+                int playerScore = roundsByPlayer.getOrDefault(player, new ArrayList<>()).stream()
+                        .mapToInt(GameRoundEntity::getCorrectEntryCount)
+                        .sum();
+                playerScores.add(new GameEntity.PlayerScore(player, playerScore, !team.getPlayers().contains(player)));
+            }
+            int teamScore = teamRounds.stream().mapToInt(GameRoundEntity::getCorrectEntryCount).sum();
+            scores.add(new GameEntity.TeamScore(team.getName(), teamScore, playerScores));
+        }
+        return scores;
+    }
+
+    private static Set<String> availableEntries(GameEntity game) {
+        BitSet ids = game.getAvailableEntryIds();
+        return ids.stream().mapToObj(game.getEntryDictionary()::get).collect(Collectors.toSet());
+    }
+
+    private static Set<String> poolEntries(GameEntity game, int[] ids) {
+        return Arrays.stream(ids).mapToObj(game.getEntryDictionary()::get).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,86 @@
+package at.berger.timesup.model;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.entity.GamePhase;
+import at.berger.timesup.entity.GameRoundEntity;
+import at.berger.timesup.entity.GameRoundState;
+import at.berger.timesup.entity.GameState;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static at.berger.timesup.TestGames.playedGame;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameStateDeltaTests {
+
+    @Test
+    void fullStateHasNoBaseVersion() {
+        GameEntity game = playedGame("game");
+
+        GameStateDelta full = GameStateDelta.full(GameSnapshot.of(game), "p1");
+
+        assertThat(full.getSinceVersion()).isNull();
+        assertThat(full.getChanged()).isNull();
+        assertThat(full.getState()).isEqualTo(GameState.PLAY);
+        assertThat(full.getPhase()).isEqualTo(GamePhase.ALL_WORDS);
+        assertThat(full.getRound().getCurrentEntry()).isNull();
+        assertThat(full.getTeams()).hasSize(2);
+    }
+
+    @Test
+    void containsOnlyFieldsChangedSinceOlderVersion() {
+        GameEntity game = playedGame("game");
+        GameSnapshot base = GameSnapshot.of(game);
+        GameRoundEntity round = game.getCurrentRound();
+        round.setState(GameRoundState.IN_PROGRESS);
+        round.setInProgressTimestamp(Instant.now());
+        game.setVersion(game.getVersion() + 1);
+        game.addCorrectEntry(round.getCurrentEntry());
+        game.setVersion(game.getVersion() + 1);
+
+        GameStateDelta delta = GameStateDelta.between(base, GameSnapshot.of(game), "p1");
+
+        assertThat(delta.getSinceVersion()).isEqualTo(base.getVersion());
+        assertThat(delta.getVersion()).isEqualTo(base.getVersion() + 2);
+        assertThat(delta.getChanged()).containsExactly("round", "scores");
+        assertThat(delta.getState()).isNull();
+        assertThat(delta.getPhase()).isNull();
+        assertThat(delta.getTeams()).isNull();
+        assertThat(delta.getRound().getCorrectEntryCount()).isEqualTo(1);
+        assertThat(delta.getRound().getCurrentEntry()).isEqualTo(round.getCurrentEntry());
+        assertThat(delta.getScores()).extracting(GameEntity.TeamScore::getTeam).containsExactly("A");
+    }
+
+    @Test
+    void listsPhaseClearedAtGameEnd() throws Exception {
+        GameEntity game = playedGame("game");
+        GameSnapshot base = GameSnapshot.of(game);
+        game.setPhase(null);
+        game.setState(GameState.END);
+        game.setVersion(game.getVersion() + 1);
+
+        GameStateDelta delta = GameStateDelta.between(base, GameSnapshot.of(game), "p3");
+        JsonNode json = new ObjectMapper().valueToTree(delta);
+
+        assertThat(delta.getChanged()).containsExactly("state", "phase");
+        assertThat(delta.getState()).isEqualTo(GameState.END);
+        assertThat(delta.getPhase()).isNull();
+        assertThat(json.has("phase")).isFalse();
+        assertThat(json.get("changed")).extracting(JsonNode::asText).containsExactly("state", "phase");
+    }
+
+    @Test
+    void isEmptyWithoutChanges() {
+        GameSnapshot snapshot = GameSnapshot.of(playedGame("game"));
+
+        GameStateDelta delta = GameStateDelta.between(snapshot, snapshot, "p1");
+
+        assertThat(delta.getChanged()).isEmpty();
+        assertThat(delta.getState()).isNull();
+        assertThat(delta.getRound()).isNull();
+        assertThat(delta.getScores()).isNull();
+    }
+}
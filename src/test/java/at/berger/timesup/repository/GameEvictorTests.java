@@ -0,0 +1,113 @@
+package at.berger.timesup.repository;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.entity.GameState;
+import at.berger.timesup.executor.GameExecutors;
+import at.berger.timesup.repository.codec.BinaryGameCodec;
+import at.berger.timesup.repository.journal.GameCheckpointStore;
+import at.berger.timesup.repository.journal.GameJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static at.berger.timesup.TestGames.newGame;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameEvictorTests {
+
+    private static final long TTL = 10000;
+
+    private static final long END_TTL = 1000;
+
+    @TempDir
+    Path directory;
+
+    private InMemoryGameRepository repository;
+
+    @BeforeEach
+    void createRepository() {
+        GameJournal journal = new GameJournal(false, directory.toString(), 1024 * 1024, 10, 3,
+                new BinaryGameCodec(), new GameCheckpointStore(directory.toString()));
+        repository = new InMemoryGameRepository(event -> { }, journal, new GameExecutors(false),
+                new OffHeapGameStore(new BinaryGameCodec()), Long.MAX_VALUE, 5000);
+    }
+
+    @AfterEach
+    void shutdownRepository() {
+        repository.shutdown();
+    }
+
+    @Test
+    void evictsEndedGamesAfterEndTtlAndOthersAfterTtl() {
+        repository.create(newGame("setup"));
+        repository.create(endedGame("ended"));
+        long created = latestActivity();
+        GameEvictor evictor = new GameEvictor(repository, TTL, END_TTL, 100, 1000);
+
+        evictor.evict(created + END_TTL - 1);
+        assertThat(activity()).containsOnlyKeys("setup", "ended");
+
+        evictor.evict(created + END_TTL);
+        assertThat(activity()).containsOnlyKeys("setup");
+
+        evictor.evict(activity().get("setup") + TTL - 1);
+        assertThat(activity()).containsOnlyKeys("setup");
+
+        evictor.evict(activity().get("setup") + TTL);
+        assertThat(activity()).isEmpty();
+        assertThat(evictor.getEvictions()).isEqualTo(2);
+    }
+
+    @Test
+    void evictsEndedThenLeastRecentlyActiveGamesOverCapacity() throws InterruptedException {
+        repository.create(newGame("oldest"));
+        Thread.sleep(5);
+        repository.create(newGame("newest"));
+        Thread.sleep(5);
+        repository.create(endedGame("ended"));
+        long now = latestActivity();
+
+        new GameEvictor(repository, TTL, END_TTL, 2, 1000).evict(now);
+        assertThat(activity()).containsOnlyKeys("oldest", "newest");
+
+        new GameEvictor(repository, TTL, END_TTL, 2, 8).evict(now);
+        assertThat(activity()).containsOnlyKeys("newest");
+    }
+
+    @Test
+    void keepsGameActiveSinceItWasScanned() throws InterruptedException {
+        repository.create(newGame("game-1"));
+        long scanned = activity().get("game-1");
+        Thread.sleep(5);
+        repository.update("game-1", game -> {
+            game.setDescription("active");
+            return true;
+        }, Boolean::booleanValue);
+
+        assertThat(repository.removeIfIdle("game-1", scanned)).isFalse();
+        assertThat(activity()).containsOnlyKeys("game-1");
+        assertThat(repository.removeIfIdle("game-1", activity().get("game-1"))).isTrue();
+        assertThat(activity()).isEmpty();
+    }
+
+    private static GameEntity endedGame(String id) {
+        GameEntity game = newGame(id);
+        game.setState(GameState.END);
+        return game;
+    }
+
+    private Map<String, Long> activity() {
+        Map<String, Long> activity = new HashMap<>();
+        repository.forEachActivity((game, lastActivity) -> activity.put(game.getId(), lastActivity));
+        return activity;
+    }
+
+    private long latestActivity() {
+        return activity().values().stream().mapToLong(Long::longValue).max().getAsLong();
+    }
+}
@@ -0,0 +1,193 @@
+package at.berger.timesup.repository;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.entity.GameState;
+import at.berger.timesup.executor.GameExecutors;
+import at.berger.timesup.model.GameSnapshot;
+import at.berger.timesup.model.message.GameException;
+import at.berger.timesup.repository.codec.BinaryGameCodec;
+import at.berger.timesup.repository.journal.GameCheckpointStore;
+import at.berger.timesup.repository.journal.GameJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static at.berger.timesup.TestGames.newGame;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryGameRepositoryTests {
+
+    @TempDir
+    Path directory;
+
+    private final List<GameChangedEvent> events = new CopyOnWriteArrayList<>();
+
+    private InMemoryGameRepository repository;
+
+    @BeforeEach
+    void createRepository() {
+        GameJournal journal = new GameJournal(false, directory.toString(), 1024 * 1024, 10, 3,
+                new BinaryGameCodec(), new GameCheckpointStore(directory.toString()));
+        repository = new InMemoryGameRepository(event -> events.add((GameChangedEvent) event), journal,
+                new GameExecutors(false), new OffHeapGameStore(new BinaryGameCodec()), 0, 5000);
+    }
+
+    @AfterEach
+    void shutdownRepository() {
+        repository.shutdown();
+    }
+
+    @Test
+    void updatesGameLoadedBackFromIdleStore() throws Exception {
+        repository.create(newGame("game-1"));
+        demote();
+        assertThat(idleGameIds()).containsExactly("game-1");
+
+        repository.update("game-1", game -> {
+            game.setDescription("updated");
+            return true;
+        }, Boolean::booleanValue);
+
+        assertThat(idleGameIds()).isEmpty();
+        assertThat(repository.get("game-1").getDescription()).isEqualTo("updated");
+        assertThat(repository.getSnapshot("game-1").getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void removesGameFromIdleStore() throws Exception {
+        repository.create(newGame("game-1"));
+        demote();
+
+        repository.remove("game-1");
+
+        assertThat(idleGameIds()).isEmpty();
+        assertThat(repository.getGameCount(GameState.SETUP)).isZero();
+        assertThatThrownBy(() -> repository.getSnapshot("game-1")).isInstanceOf(GameException.class);
+        assertThatThrownBy(() -> repository.get("game-1")).isInstanceOf(GameException.class);
+        assertThat(events.get(events.size() - 1)).isEqualTo(new GameChangedEvent("game-1", 2, true));
+    }
+
+    @Test
+    void removesGameAfterItWasLoadedBack() throws Exception {
+        repository.create(newGame("game-1"));
+        demote();
+        assertThat(repository.get("game-1").getId()).isEqualTo("game-1");
+
+        repository.remove("game-1");
+
+        assertThat(idleGameIds()).isEmpty();
+        assertThatThrownBy(() -> repository.get("game-1")).isInstanceOf(GameException.class);
+        assertThat(events.get(events.size() - 1)).isEqualTo(new GameChangedEvent("game-1", 2, true));
+    }
+
+    @Test
+    void appliesConcurrentUpdatesOneAtATime() throws Exception {
+        repository.create(newGame("game-1"));
+        int threads = 8;
+        int updates = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            Future<?> demoter = executor.submit(() -> {
+                while (running.get()) {
+                    repository.demoteIdleGames();
+                }
+            });
+            List<Future<?>> updaters = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                updaters.add(executor.submit(() -> {
+                    for (int j = 0; j < updates; j++) {
+                        repository.update("game-1", game -> {
+                            game.setDescription(Thread.currentThread().getName());
+                            return true;
+                        }, Boolean::booleanValue);
+                    }
+                }));
+            }
+            for (Future<?> updater : updaters) {
+                updater.get(30, TimeUnit.SECONDS);
+            }
+            running.set(false);
+            demoter.get(5, TimeUnit.SECONDS);
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+
+        long version = 1 + threads * updates;
+        assertThat(repository.get("game-1").getVersion()).isEqualTo(version);
+        assertThat(repository.getSnapshot("game-1").getVersion()).isEqualTo(version);
+        assertThat(events).extracting(GameChangedEvent::getVersion).doesNotHaveDuplicates().hasSize((int) version);
+    }
+
+    @Test
+    void pagesLobbyByNameAcrossStates() {
+        createGame("setup-b", "Beta", GameState.SETUP);
+        createGame("play-a", "alpha", GameState.PLAY);
+        createGame("setup-a", "Alpine", GameState.SETUP);
+        createGame("end-a", "Alpha", GameState.END);
+        createGame("play-g", "Gamma", GameState.PLAY);
+
+        assertThat(lobbyIds(null, 0, 10)).containsExactly("play-a", "setup-a", "setup-b", "play-g");
+        assertThat(lobbyIds(null, 1, 2)).containsExactly("setup-a", "setup-b");
+        assertThat(lobbyIds(null, 4, 2)).isEmpty();
+        assertThat(lobbyIds(" AL", 0, 10)).containsExactly("play-a", "setup-a");
+        assertThat(lobbyIds("al", 1, 10)).containsExactly("setup-a");
+        assertThat(lobbyIds("delta", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void movesGameInLobbyIndexWhenStateChanges() {
+        createGame("game-1", "Alpha", GameState.SETUP);
+        createGame("game-2", "Beta", GameState.SETUP);
+
+        repository.update("game-1", game -> {
+            game.setState(GameState.END);
+            return true;
+        }, Boolean::booleanValue);
+        repository.remove("game-2");
+
+        assertThat(lobbyIds(null, 0, 10)).isEmpty();
+        assertThat(repository.getByState(null, 0, 10, GameState.END))
+                .extracting(GameSnapshot::getId).containsExactly("game-1");
+        assertThat(repository.getGameCount(GameState.SETUP)).isZero();
+        assertThat(repository.getGameCount(GameState.END)).isEqualTo(1);
+    }
+
+    private void createGame(String id, String name, GameState state) {
+        GameEntity game = newGame(id);
+        game.setName(name);
+        game.setState(state);
+        repository.create(game);
+    }
+
+    private List<String> lobbyIds(String namePrefix, int offset, int limit) {
+        return repository.getSetupAndPlay(namePrefix, offset, limit).stream()
+                .map(GameSnapshot::getId)
+                .collect(Collectors.toList());
+    }
+
+    private void demote() throws InterruptedException {
+        Thread.sleep(5);
+        repository.demoteIdleGames();
+    }
+
+    private List<String> idleGameIds() {
+        List<String> ids = new ArrayList<>();
+        repository.forEachIdle((snapshot, record) -> ids.add(record.getGameId()));
+        return ids;
+    }
+}
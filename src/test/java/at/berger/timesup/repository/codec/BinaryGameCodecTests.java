@@ -0,0 +1,138 @@
+package at.berger.timesup.repository.codec;
+
+import at.berger.timesup.TestGames;
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.entity.GamePhase;
+import at.berger.timesup.entity.GameRoundEntity;
+import at.berger.timesup.entity.GameRoundState;
+import at.berger.timesup.entity.GameState;
+import at.berger.timesup.entity.GameTeamEntity;
+import at.berger.timesup.model.GameSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static at.berger.timesup.TestGames.newGame;
+import static at.berger.timesup.TestGames.newRound;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryGameCodecTests {
+
+    private final BinaryGameCodec codec = new BinaryGameCodec();
+
+    @Test
+    void roundTripsSetupGame() {
+        GameEntity game = newGame("game");
+
+        GameEntity decoded = codec.decode(ByteBuffer.wrap(codec.encode(game)));
+
+        assertSameGame(decoded, game);
+    }
+
+    @Test
+    void roundTripsGameInPlay() {
+        GameEntity game = playedGame();
+        game.getCurrentRound().recordCommand("round:1", 1);
+
+        GameEntity decoded = codec.decode(ByteBuffer.wrap(codec.encode(game)));
+
+        assertSameGame(decoded, game);
+        assertThat(decoded.getCurrentRound().getCommandSequence()).isEqualTo(1);
+        assertThat(decoded.getCurrentRound().isCommandApplied("round:1", 1)).isTrue();
+        assertThat(decoded.getLastRound("A").getId()).isEqualTo(game.getLastRound("A").getId());
+        assertThat(decoded.getLastRound("B").getId()).isEqualTo(game.getLastRound("B").getId());
+    }
+
+    @Test
+    void encodesEntryPoolOfCurrentRoundOnly() {
+        GameEntity game = playedGame();
+
+        GameEntity decoded = codec.decode(ByteBuffer.wrap(codec.encode(game)));
+
+        List<GameRoundEntity> rounds = decoded.getRounds();
+        assertThat(rounds.get(0).getAvailableEntryCount()).isZero();
+        assertThat(rounds.get(0).getCorrectEntryCount()).isEqualTo(2);
+        assertThat(rounds.get(1).getAvailableEntryIds())
+                .containsExactlyInAnyOrder(game.getCurrentRound().getAvailableEntryIds());
+    }
+
+    @Test
+    void decodesFormatVersion1() {
+        GameEntity game = newGame("game");
+        game.setState(GameState.PLAY);
+        game.setPhase(GamePhase.ALL_WORDS);
+        game.addRound(newRound(game, "A", "p2"));
+        byte[] encoded = codec.encode(game);
+
+        GameEntity decoded = codec.decode(ByteBuffer.wrap(toFormatVersion1(encoded, game.getTeams().size())));
+
+        assertSameGame(decoded, game);
+        assertThat(decoded.getCurrentRound().getCommandSequence()).isZero();
+        assertThat(decoded.getCurrentRound().getCommandKeys()).isEmpty();
+    }
+
+    @Test
+    void rejectsUnknownFormats() {
+        byte[] encoded = codec.encode(newGame("game"));
+        encoded[1] = 99;
+
+        assertThatThrownBy(() -> codec.decode(ByteBuffer.wrap(encoded))).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> codec.decode(ByteBuffer.wrap(new byte[] { 'X', 1 })))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> codec.decode(ByteBuffer.wrap(new byte[] { (byte) 0xAC, (byte) 0xED, 0, 5 })))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> codec.decode(ByteBuffer.wrap(Arrays.copyOf(codec.encode(newGame("game")), 10))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static byte[] toFormatVersion1(byte[] encoded, int teamCount) {
+        int commandFields = encoded.length - 1 - teamCount - 2;
+        byte[] converted = new byte[encoded.length - 2];
+        System.arraycopy(encoded, 0, converted, 0, commandFields);
+        System.arraycopy(encoded, commandFields + 2, converted, commandFields, encoded.length - commandFields - 2);
+        converted[1] = 1;
+        return converted;
+    }
+
+    private static void assertSameGame(GameEntity decoded, GameEntity game) {
+        assertThat(GameSnapshot.of(decoded)).isEqualTo(GameSnapshot.of(game));
+        assertThat(decoded.getTotalEntries()).containsExactlyElementsOf(game.getTotalEntries());
+        assertThat(decoded.getAvailableEntryIds()).isEqualTo(game.getAvailableEntryIds());
+        assertThat(decoded.getTeamScores()).isEqualTo(game.getTeamScores());
+        assertThat(decoded.getRoundCount()).isEqualTo(game.getRoundCount());
+        for (int i = 0; i < game.getRoundCount(); i++) {
+            GameRoundEntity round = game.getRounds().get(i);
+            GameRoundEntity decodedRound = decoded.getRounds().get(i);
+            assertThat(decodedRound.getId()).isEqualTo(round.getId());
+            assertThat(decodedRound.getState()).isEqualTo(round.getState());
+            assertThat(decodedRound.getStartTimestamp()).isEqualTo(round.getStartTimestamp());
+            assertThat(decodedRound.getCorrectEntryIds()).isEqualTo(round.getCorrectEntryIds());
+        }
+        for (GameTeamEntity team : game.getTeams()) {
+            GameTeamEntity decodedTeam = decoded.getTeam(team.getName());
+            assertThat(decodedTeam.getPlayers()).containsExactlyElementsOf(team.getPlayers());
+            assertThat(decodedTeam.getPlayerScores()).isEqualTo(team.getPlayerScores());
+            assertThat(decodedTeam.getRoundPlayers()).isEqualTo(team.getRoundPlayers());
+        }
+    }
+
+    private static GameEntity playedGame() {
+        GameEntity game = TestGames.playedGame("game");
+        GameRoundEntity first = game.getCurrentRound();
+        game.addCorrectEntry(first.getCurrentEntry());
+        game.addCorrectEntry(first.getCurrentEntry());
+        first.setState(GameRoundState.END);
+        game.removeEntries(first.getCorrectEntryIds());
+        GameRoundEntity second = newRound(game, "B", "p3");
+        game.addRound(second);
+        second.setState(GameRoundState.IN_PROGRESS);
+        second.setInProgressTimestamp(Instant.ofEpochSecond(1600000000L, 123456789));
+        second.rejectEntry(second.getCurrentEntry());
+        game.setVersion(12);
+        return game;
+    }
+}
@@ -0,0 +1,100 @@
+package at.berger.timesup.repository.journal;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.entity.GameRoundState;
+import at.berger.timesup.entity.GameState;
+import at.berger.timesup.executor.GameExecutors;
+import at.berger.timesup.repository.InMemoryGameRepository;
+import at.berger.timesup.repository.OffHeapGameStore;
+import at.berger.timesup.repository.codec.BinaryGameCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static at.berger.timesup.TestGames.newGame;
+import static at.berger.timesup.TestGames.playedGame;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameCheckpointerTests {
+
+    @TempDir
+    Path directory;
+
+    private final BinaryGameCodec codec = new BinaryGameCodec();
+
+    private GameJournal journal;
+
+    private InMemoryGameRepository repository;
+
+    @AfterEach
+    void close() throws IOException, InterruptedException {
+        if (repository != null) {
+            repository.shutdown();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void replaysJournalOnTopOfCheckpoint() throws Exception {
+        open();
+        GameCheckpointer checkpointer = new GameCheckpointer(repository, journal, checkpointStore(), codec);
+        repository.create(playedGame("game-1"));
+        GameEntity ended = newGame("game-2");
+        ended.setState(GameState.END);
+        repository.create(ended);
+        repository.create(newGame("game-3"));
+
+        checkpointer.checkpoint();
+        repository.update("game-1", game -> {
+            game.getCurrentRound().setState(GameRoundState.IN_PROGRESS);
+            game.addCorrectEntry(game.getCurrentRound().getCurrentEntry());
+            return true;
+        }, Boolean::booleanValue);
+        repository.remove("game-3");
+
+        assertThat(checkpointer.getLastGameCount()).isEqualTo(2);
+        assertThat(segmentCount()).isEqualTo(1);
+
+        List<GameEntity> recovered = reopen();
+
+        assertThat(recovered).extracting(GameEntity::getId).containsExactly("game-1");
+        GameEntity game = recovered.get(0);
+        assertThat(game.getVersion()).isEqualTo(repository.getSnapshot("game-1").getVersion());
+        assertThat(game.getCurrentRound().getId()).isEqualTo("round-1");
+        assertThat(game.getCurrentRound().getState()).isEqualTo(GameRoundState.IN_PROGRESS);
+        assertThat(game.getCurrentRound().getCorrectEntryCount()).isEqualTo(1);
+        assertThat(game.getTeamScores()).isEqualTo(repository.get("game-1").getTeamScores());
+    }
+
+    private void open() throws IOException {
+        journal = new GameJournal(true, directory.toString(), 1024 * 1024, 1, 3, codec, checkpointStore());
+        journal.open();
+        repository = new InMemoryGameRepository(event -> { }, journal, new GameExecutors(false),
+                new OffHeapGameStore(codec), Long.MAX_VALUE, 5000);
+    }
+
+    private List<GameEntity> reopen() throws IOException, InterruptedException {
+        journal.close();
+        journal = new GameJournal(true, directory.toString(), 1024 * 1024, 1, 3, codec, checkpointStore());
+        journal.open();
+        return journal.getRecoveredGames();
+    }
+
+    private GameCheckpointStore checkpointStore() {
+        return new GameCheckpointStore(directory.toString());
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).count();
+        }
+    }
+}
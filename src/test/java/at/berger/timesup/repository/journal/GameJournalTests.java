@@ -0,0 +1,217 @@
+package at.berger.timesup.repository.journal;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.entity.GameRoundEntity;
+import at.berger.timesup.entity.GameRoundState;
+import at.berger.timesup.model.GameSnapshot;
+import at.berger.timesup.repository.codec.BinaryGameCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static at.berger.timesup.TestGames.newGame;
+import static at.berger.timesup.TestGames.playedGame;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameJournalTests {
+
+    private static final int SEGMENT_SIZE = 1024 * 1024;
+
+    private final BinaryGameCodec codec = new BinaryGameCodec();
+
+    @TempDir
+    Path directory;
+
+    private GameJournal journal;
+
+    @AfterEach
+    void closeJournal() throws IOException, InterruptedException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void replaysLatestVersionOfStoredGames() throws Exception {
+        GameEntity game = newGame("game-1");
+        open();
+        journal.store(game).join();
+        game.setDescription("changed");
+        game.setVersion(2);
+        journal.store(game).join();
+        journal.store(newGame("game-2")).join();
+
+        List<GameEntity> recovered = reopen();
+
+        assertThat(recovered).extracting(GameEntity::getId).containsExactlyInAnyOrder("game-1", "game-2");
+        GameEntity recoveredGame = find(recovered, "game-1");
+        assertThat(recoveredGame.getVersion()).isEqualTo(2);
+        assertThat(recoveredGame.getDescription()).isEqualTo("changed");
+    }
+
+    @Test
+    void ignoresTornTrailingFrame() throws Exception {
+        GameEntity game = newGame("game-1");
+        open();
+        journal.store(game).join();
+        game.setDescription("torn");
+        game.setVersion(2);
+        journal.store(game).join();
+        journal.close();
+        journal = null;
+
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int secondFrame = 2 * Integer.BYTES + segment.getInt(0);
+            int corrupted = secondFrame + 2 * Integer.BYTES + 20;
+            segment.put(corrupted, (byte) (segment.get(corrupted) ^ 0xFF));
+            segment.force();
+        }
+
+        List<GameEntity> recovered = reopen();
+
+        assertThat(recovered).hasSize(1);
+        assertThat(recovered.get(0).getVersion()).isEqualTo(1);
+        assertThat(recovered.get(0).getDescription()).isEqualTo(newGame("game-1").getDescription());
+    }
+
+    @Test
+    void appliesRoundDeltasOnTopOfStoredGame() throws Exception {
+        GameEntity game = playedGame("game-1");
+        open();
+        journal.store(game).join();
+        GameRoundEntity round = game.getCurrentRound();
+        round.setState(GameRoundState.IN_PROGRESS);
+        round.setInProgressTimestamp(Instant.ofEpochSecond(1600000000L, 5000));
+        game.setVersion(game.getVersion() + 1);
+        journal.storeRound(game.getId(), game.getVersion(), GameRoundDelta.of(game)).join();
+        game.addCorrectEntry(round.getCurrentEntry());
+        round.recordCommand("round:1", 1);
+        game.setVersion(game.getVersion() + 1);
+        journal.storeRound(game.getId(), game.getVersion(), GameRoundDelta.of(game)).join();
+
+        GameEntity recovered = find(reopen(), "game-1");
+
+        assertThat(GameSnapshot.of(recovered)).isEqualTo(GameSnapshot.of(game));
+        assertThat(recovered.getTeamScores()).isEqualTo(game.getTeamScores());
+        assertThat(recovered.getCurrentRound().getAvailableEntryIds())
+                .containsExactlyInAnyOrder(round.getAvailableEntryIds());
+        assertThat(recovered.getCurrentRound().getCorrectEntryIds()).isEqualTo(round.getCorrectEntryIds());
+        assertThat(recovered.getCurrentRound().isCommandApplied("round:1", 1)).isTrue();
+    }
+
+    @Test
+    void keepsRemovedGamesRemovedAcrossRestarts() throws Exception {
+        GameEntity first = newGame("game-1");
+        GameEntity second = newGame("game-2");
+        new GameCheckpointStore(directory.toString()).write(Arrays.asList(
+                new GameRecord(first.getId(), first.getVersion(), ByteBuffer.wrap(codec.encode(first))),
+                new GameRecord(second.getId(), second.getVersion(), ByteBuffer.wrap(codec.encode(second)))));
+        open();
+        assertThat(journal.getRecoveredGames()).hasSize(2);
+
+        journal.remove("game-1", 2).join();
+
+        assertThat(reopen()).extracting(GameEntity::getId).containsExactly("game-2");
+        assertThat(reopen()).extracting(GameEntity::getId).containsExactly("game-2");
+    }
+
+    @Test
+    void recoversFromCheckpointAndNewerSegments() throws Exception {
+        GameEntity game = playedGame("game-1");
+        GameCheckpointStore checkpointStore = new GameCheckpointStore(directory.toString());
+        checkpointStore.write(Collections.singletonList(
+                new GameRecord(game.getId(), game.getVersion(), ByteBuffer.wrap(codec.encode(game)))));
+        GameEntity stale = playedGame("game-1");
+        stale.setVersion(game.getVersion() - 1);
+        stale.setDescription("stale");
+        open();
+        journal.store(stale).join();
+        game.getCurrentRound().setState(GameRoundState.IN_PROGRESS);
+        game.setVersion(game.getVersion() + 1);
+        journal.storeRound(game.getId(), game.getVersion(), GameRoundDelta.of(game)).join();
+        journal.store(newGame("game-2")).join();
+
+        List<GameEntity> recovered = reopen();
+
+        GameEntity recoveredGame = find(recovered, "game-1");
+        assertThat(recoveredGame.getVersion()).isEqualTo(game.getVersion());
+        assertThat(recoveredGame.getDescription()).isEqualTo(game.getDescription());
+        assertThat(recoveredGame.getCurrentRound().getState()).isEqualTo(GameRoundState.IN_PROGRESS);
+        assertThat(find(recovered, "game-2")).isNotNull();
+        assertThat(segments()).hasSize(1);
+    }
+
+    @Test
+    void completesRollWithNewSegment() throws Exception {
+        open();
+        journal.store(newGame("game-1")).join();
+
+        long rolled = journal.roll().join();
+        long written = journal.store(newGame("game-2")).join();
+        journal.deleteSegmentsBefore(rolled);
+
+        assertThat(written).isEqualTo(rolled);
+        assertThat(segments()).hasSize(1);
+    }
+
+    @Test
+    void failsRecordsOnceRetriesAreExhausted() throws Exception {
+        open(1);
+        for (int number = 2; number < 10; number++) {
+            Files.createFile(directory.resolve(String.format("journal-%020d.log", number)));
+        }
+
+        CompletableFuture<Long> rolled = journal.roll();
+
+        assertThatThrownBy(rolled::join).hasCauseInstanceOf(IOException.class);
+        assertThat(journal.store(newGame("game-1")).get(5, TimeUnit.SECONDS)).isPositive();
+    }
+
+    private void open() throws IOException {
+        open(3);
+    }
+
+    private void open(int maxRetries) throws IOException {
+        journal = new GameJournal(true, directory.toString(), SEGMENT_SIZE, 1, maxRetries, codec,
+                new GameCheckpointStore(directory.toString()));
+        journal.open();
+    }
+
+    private List<GameEntity> reopen() throws IOException, InterruptedException {
+        if (journal != null) {
+            journal.close();
+        }
+        open();
+        return journal.getRecoveredGames();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static GameEntity find(List<GameEntity> games, String id) {
+        return games.stream().filter(game -> game.getId().equals(id)).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,195 @@
+package at.berger.timesup.service;
+
+import at.berger.timesup.entity.GameEntity;
+import at.berger.timesup.entity.GameRoundEntity;
+import at.berger.timesup.entity.GameRoundState;
+import at.berger.timesup.model.RoundAction;
+import at.berger.timesup.model.RoundCommand;
+import at.berger.timesup.model.RoundCommandResult;
+import at.berger.timesup.model.RoundCommandStatus;
+import at.berger.timesup.model.message.GameException;
+import at.berger.timesup.repository.GameRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GameServiceTests {
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Test
+    void appliesRoundCommandOnce() {
+        String gameId = startedGame();
+        GameRoundEntity round = startRound(gameId);
+        RoundCommand command = command(round, 1, RoundAction.CORRECT);
+
+        List<RoundCommandResult> results = apply(gameId, round, command);
+        long version = gameService.getGame(gameId).getVersion();
+        List<RoundCommandResult> replayed = apply(gameId, round, command);
+
+        assertThat(results).extracting(RoundCommandResult::getStatus).containsExactly(RoundCommandStatus.APPLIED);
+        assertThat(replayed).extracting(RoundCommandResult::getStatus).containsExactly(RoundCommandStatus.DUPLICATE);
+        assertThat(gameService.getGame(gameId).getVersion()).isEqualTo(version);
+        assertThat(gameService.getGame(gameId).getCurrentRound().getCorrectEntryCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsMissingCommands() {
+        String gameId = startedGame();
+        GameRoundEntity round = startRound(gameId);
+        long version = gameService.getGame(gameId).getVersion();
+
+        assertThatThrownBy(() -> gameService.applyRoundCommands(gameId, round.getPlayerName(), round.getId(), null))
+                .isInstanceOf(GameException.class);
+        assertThatThrownBy(() -> apply(gameId, round, command(round, 1, RoundAction.CORRECT), null))
+                .isInstanceOf(GameException.class);
+        assertThat(gameService.getGame(gameId).getVersion()).isEqualTo(version);
+    }
+
+    @Test
+    void treatsReusedCommandKeyAsDuplicate() {
+        String gameId = startedGame();
+        GameRoundEntity round = startRound(gameId);
+        RoundCommand command = command(round, 1, RoundAction.REJECT);
+        apply(gameId, round, command);
+        long version = gameService.getGame(gameId).getVersion();
+
+        RoundCommand reusedKey = new RoundCommand(5, command.getKey(), RoundAction.CORRECT,
+                gameService.getGame(gameId).getCurrentRound().getCurrentEntry());
+        List<RoundCommandResult> results = apply(gameId, round, reusedKey);
+
+        assertThat(results).extracting(RoundCommandResult::getStatus).containsExactly(RoundCommandStatus.DUPLICATE);
+        assertThat(gameService.getGame(gameId).getVersion()).isEqualTo(version);
+        assertThat(gameService.getGame(gameId).getCurrentRound().getCorrectEntryCount()).isZero();
+    }
+
+    @Test
+    void replayedBatchAppliesOnlyNewCommands() {
+        String gameId = startedGame();
+        GameRoundEntity round = startRound(gameId);
+        RoundCommand first = command(round, 1, RoundAction.CORRECT);
+        apply(gameId, round, first);
+        RoundCommand second = command(round, 2, RoundAction.CORRECT);
+        long version = gameService.getGame(gameId).getVersion();
+
+        List<RoundCommandResult> results = apply(gameId, round, second, first);
+        List<RoundCommandResult> replayed = apply(gameId, round, first, second);
+
+        assertThat(results).extracting(RoundCommandResult::getStatus)
+                .containsExactly(RoundCommandStatus.DUPLICATE, RoundCommandStatus.APPLIED);
+        assertThat(replayed).extracting(RoundCommandResult::getStatus)
+                .containsExactly(RoundCommandStatus.DUPLICATE, RoundCommandStatus.DUPLICATE);
+        assertThat(gameService.getGame(gameId).getVersion()).isEqualTo(version + 1);
+        assertThat(gameService.getGame(gameId).getCurrentRound().getCorrectEntryCount()).isEqualTo(2);
+        assertThat(gameService.getGame(gameId).getCurrentRound().getCommandSequence()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsCommandsForWrongEntryAndSkipsTheRest() {
+        String gameId = startedGame();
+        GameRoundEntity round = startRound(gameId);
+        long version = gameService.getGame(gameId).getVersion();
+
+        List<RoundCommandResult> results = apply(gameId, round,
+                new RoundCommand(1, round.getId() + ":1", RoundAction.CORRECT, "not-an-entry"),
+                new RoundCommand(2, round.getId() + ":2", RoundAction.REJECT, round.getCurrentEntry()));
+
+        assertThat(results).extracting(RoundCommandResult::getStatus)
+                .containsExactly(RoundCommandStatus.REJECTED, RoundCommandStatus.SKIPPED);
+        assertThat(gameService.getGame(gameId).getVersion()).isEqualTo(version);
+    }
+
+    @Test
+    void endsRoundWhenItsTimerFires() throws InterruptedException {
+        String gameId = startedGame(200);
+        GameRoundEntity round = startRound(gameId);
+
+        awaitRoundChange(gameId, round.getId());
+
+        assertThat(round.getState()).isEqualTo(GameRoundState.END);
+        assertThat(gameService.getGame(gameId).getCurrentRound().getState()).isEqualTo(GameRoundState.AWAIT_START);
+    }
+
+    @Test
+    void roundFinishedEarlyDoesNotCancelNextRoundTimer() throws InterruptedException {
+        String gameId = startedGame(300);
+        GameRoundEntity first = startRound(gameId);
+        while (gameRepository.get(gameId).getCurrentRound() == first) {
+            gameService.correctEntry(gameId, first.getPlayerName(), first.getCurrentEntry());
+        }
+        GameRoundEntity second = startRound(gameId);
+        assertThat(second.getId()).isNotEqualTo(first.getId());
+
+        awaitRoundChange(gameId, second.getId());
+
+        assertThat(second.getState()).isEqualTo(GameRoundState.END);
+    }
+
+    @Test
+    void unchangedTimerUpdateKeepsVersion() throws InterruptedException {
+        String gameId = startedGame();
+        long version = gameService.getGame(gameId).getVersion();
+        CountDownLatch fired = new CountDownLatch(1);
+
+        gameRepository.updateIn(gameId, 10, game -> {
+            fired.countDown();
+            return false;
+        });
+
+        assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(50);
+        assertThat(gameService.getGame(gameId).getVersion()).isEqualTo(version);
+    }
+
+    private String startedGame() {
+        return startedGame(60000);
+    }
+
+    private String startedGame(int roundTime) {
+        GameEntity game = gameService.createGame("Test", Arrays.asList("A", "B"), roundTime, 2, "Service test", false);
+        gameService.joinSetupGame(game.getId(), "A", "p1", new HashSet<>(Arrays.asList("apple", "pear")));
+        gameService.joinSetupGame(game.getId(), "A", "p2", new HashSet<>(Arrays.asList("plum", "fig")));
+        gameService.joinSetupGame(game.getId(), "B", "p3", new HashSet<>(Arrays.asList("kiwi", "lime")));
+        gameService.joinSetupGame(game.getId(), "B", "p4", new HashSet<>(Arrays.asList("date", "grape")));
+        gameService.startGame(game.getId());
+        return game.getId();
+    }
+
+    private GameRoundEntity startRound(String gameId) {
+        String player = gameService.getGame(gameId).getCurrentRound().getPlayerName();
+        gameService.startRound(gameId, player);
+        return gameRepository.get(gameId).getCurrentRound();
+    }
+
+    private void awaitRoundChange(String gameId, String roundId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (roundId.equals(gameService.getGame(gameId).getCurrentRound().getId())
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private RoundCommand command(GameRoundEntity round, long sequence, RoundAction action) {
+        return new RoundCommand(sequence, round.getId() + ":" + sequence, action, round.getCurrentEntry());
+    }
+
+    private List<RoundCommandResult> apply(String gameId, GameRoundEntity round, RoundCommand... commands) {
+        return gameService.applyRoundCommands(gameId, round.getPlayerName(), round.getId(), Arrays.asList(commands));
+    }
+}
@@ -0,0 +1,100 @@
+package at.berger.timesup.timer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashedWheelTimerTests {
+
+    private HashedWheelTimer timer;
+
+    @BeforeEach
+    void startTimer() {
+        timer = new HashedWheelTimer("test-timer", 10, TimeUnit.MILLISECONDS, 8, Runnable::run);
+    }
+
+    @AfterEach
+    void stopTimer() {
+        timer.stop();
+    }
+
+    @Test
+    void firesScheduledTimeoutAfterDelay() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        Timeout timeout = timer.newTimeout(t -> fired.countDown(), 50, TimeUnit.MILLISECONDS);
+
+        assertThat(timer.getPendingTimeouts()).isEqualTo(1);
+        assertThat(fired.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(50);
+        assertThat(timeout.isExpired()).isTrue();
+        assertThat(timer.getPendingTimeouts()).isZero();
+    }
+
+    @Test
+    void cancelledTimeoutDoesNotFire() throws InterruptedException {
+        AtomicBoolean fired = new AtomicBoolean();
+        Timeout timeout = timer.newTimeout(t -> fired.set(true), 30, TimeUnit.MILLISECONDS);
+
+        assertThat(timeout.cancel()).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+        assertThat(timer.getPendingTimeouts()).isZero();
+        Thread.sleep(150);
+        assertThat(fired).isFalse();
+        assertThat(timeout.isCancelled()).isTrue();
+        assertThat(timeout.isExpired()).isFalse();
+    }
+
+    @Test
+    void expiredTimeoutCannotBeCancelled() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        Timeout timeout = timer.newTimeout(t -> fired.countDown(), 10, TimeUnit.MILLISECONDS);
+
+        assertThat(fired.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+    }
+
+    @Test
+    void firesTimeoutsInDeadlineOrderAcrossWheelRounds() throws InterruptedException {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch fired = new CountDownLatch(4);
+        for (int delay : new int[] { 250, 30, 120, 80 }) {
+            timer.newTimeout(t -> {
+                order.add(delay);
+                fired.countDown();
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(order).containsExactly(30, 80, 120, 250);
+    }
+
+    @Test
+    void recordsFiringLag() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        timer.newTimeout(t -> fired.countDown(), 20, TimeUnit.MILLISECONDS);
+
+        assertThat(fired.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(timer.getLastFiringLag(TimeUnit.MILLISECONDS)).isBetween(0L, 100L);
+        assertThat(timer.getMaxFiringLag(TimeUnit.NANOSECONDS))
+                .isGreaterThanOrEqualTo(timer.getLastFiringLag(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    void rejectsTimeoutsAfterStop() {
+        timer.stop();
+
+        assertThatThrownBy(() -> timer.newTimeout(t -> { }, 10, TimeUnit.MILLISECONDS))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}